@@ -0,0 +1,162 @@
+//*******************************************************************
+//Author: Spencer E Reeves
+//Last Modified: 10-17-2026
+//
+//Purpose:
+//  Measures each phase of building a concordance on its own: reading a text or a
+//  file, tokenizing, adding words to the table and looking words up. Every
+//  benchmark runs with and without ignoring case, on synthetic texts of a chosen
+//  vocabulary size and mix of scripts.
+//
+//Design Decisions:
+//  addWord - Concordance has no addWord of its own any more, words go straight
+//    from the tokenizer into a WordTable. The words of the text are tokenized once
+//    during setup, so the benchmark only measures adding them to a table.
+//*******************************************************************
+package com.pkc;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConcordanceBenchmark {
+
+    private static final int QUERIES = 4096;
+
+    @Param({"false", "true"})
+    public boolean ignoreCase;
+
+    @Param({"1000", "100000"})
+    public int vocabulary;
+
+    @Param({"latin", "mixed"})
+    public String scripts;
+
+    @Param({"1000000"})
+    public int words;
+
+    @Param({"1.0"})
+    public double exponent;
+
+    private String text;
+    private Path file;
+
+    private char[] tokens;
+    private int[] tokenOffsets;
+    private int[] tokenHashes;
+    private int tokenCount;
+
+    private String[] queries;
+    private Concordance concordance;
+
+    @Setup
+    public void setup() throws IOException {
+        Random random = new Random(42);
+        String[] vocab = SyntheticCorpus.vocabulary(vocabulary, SyntheticCorpus.scripts(scripts), random);
+        text = SyntheticCorpus.text(vocab, words, exponent, random);
+        file = SyntheticCorpus.write(text);
+
+        tokens = new char[text.length()];
+        tokenOffsets = new int[words + 1];
+        tokenHashes = new int[words];
+        WordTokenizer tokenizer = new WordTokenizer(Locale.getDefault(), ignoreCase, (chars, length, hash) -> {
+            int start = tokenOffsets[tokenCount];
+            System.arraycopy(chars, 0, tokens, start, length);
+            tokenHashes[tokenCount++] = hash;
+            tokenOffsets[tokenCount] = start + length;
+        });
+        char[] chars = text.toCharArray();
+        tokenizer.scan(chars, 0, chars.length);
+        tokenizer.finish();
+
+        queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String word = vocab[random.nextInt(vocab.length)];
+            queries[i] = (i % 2 == 0) ? word : word.toUpperCase(Locale.ROOT);
+        }
+
+        concordance = new Concordance(Locale.getDefault());
+        concordance.readText(new StringReader(text), ignoreCase);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public Concordance readText() throws IOException {
+        Concordance result = new Concordance(Locale.getDefault());
+        result.readText(new StringReader(text), ignoreCase);
+        return result;
+    }
+
+    @Benchmark
+    public Concordance readTextNGrams() throws IOException {
+        Concordance result = Concordance.nGrams(Locale.getDefault(), 3);
+        result.readText(new StringReader(text), ignoreCase);
+        return result;
+    }
+
+    @Benchmark
+    public Concordance readFile() throws IOException {
+        Concordance result = new Concordance(Locale.getDefault());
+        result.readFile(file, ignoreCase);
+        return result;
+    }
+
+    @Benchmark
+    public Concordance readFileParallel() throws IOException {
+        Concordance result = new Concordance(Locale.getDefault());
+        result.readFile(file, ignoreCase, Runtime.getRuntime().availableProcessors());
+        return result;
+    }
+
+    @Benchmark
+    public void tokenize(Blackhole blackhole) {
+        WordTokenizer tokenizer = new WordTokenizer(Locale.getDefault(), ignoreCase, (chars, length, hash) -> blackhole.consume(hash));
+        char[] chars = text.toCharArray();
+        tokenizer.scan(chars, 0, chars.length);
+        tokenizer.finish();
+    }
+
+    @Benchmark
+    public WordTable addWord() {
+        WordTable table = new WordTable();
+        for (int i = 0; i < tokenCount; i++) {
+            table.add(tokens, tokenOffsets[i], tokenOffsets[i + 1] - tokenOffsets[i], tokenHashes[i], 1);
+        }
+        return table;
+    }
+
+    @Benchmark
+    public void getWordFrequency(Blackhole blackhole) {
+        for (String query : queries) {
+            blackhole.consume(concordance.getWordFrequency(query));
+        }
+    }
+}
@@ -0,0 +1,123 @@
+//*******************************************************************
+//Author: Spencer E Reeves
+//Last Modified: 10-17-2026
+//
+//Purpose:
+//  Measures how reading into a ConcurrentConcordance scales as threads are added,
+//  and how much taking snapshots while it is read slows the readers down. Every
+//  thread reads its own documents into one shared concordance, which is cleared
+//  before each iteration.
+//
+//  readText runs on 4 threads by default, and `-t 1`, `-t 2` and `-t 8` show the
+//  scaling. The snapshot group runs 3 readers next to a thread calling getWords.
+//*******************************************************************
+package com.pkc;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Locale;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContentionBenchmark {
+
+    private static final int DOCUMENTS = 64;
+
+    @Param({"false", "true"})
+    public boolean ignoreCase;
+
+    @Param({"1000", "100000"})
+    public int vocabulary;
+
+    @Param({"latin", "mixed"})
+    public String scripts;
+
+    @Param({"10000"})
+    public int words;
+
+    @Param({"1.0"})
+    public double exponent;
+
+    private String[] documents;
+    private ConcurrentConcordance concordance;
+
+    /**
+     * The document each thread reads next.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        @Setup
+        public void setup() {
+            next = (int) Thread.currentThread().getId() % DOCUMENTS;
+        }
+
+        String next(String[] documents) {
+            next = (next + 1) % documents.length;
+            return documents[next];
+        }
+    }
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        String[] vocab = SyntheticCorpus.vocabulary(vocabulary, SyntheticCorpus.scripts(scripts), random);
+        documents = new String[DOCUMENTS];
+        for (int i = 0; i < DOCUMENTS; i++) {
+            documents[i] = SyntheticCorpus.text(vocab, words, exponent, random);
+        }
+        concordance = new ConcurrentConcordance(Locale.getDefault(), ignoreCase);
+    }
+
+    @Setup(Level.Iteration)
+    public void clear() {
+        concordance.clear();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public ConcurrentConcordance readText(Cursor cursor) throws IOException {
+        concordance.readText(new StringReader(cursor.next(documents)));
+        return concordance;
+    }
+
+    @Benchmark
+    @Group("snapshot")
+    @GroupThreads(3)
+    public ConcurrentConcordance readTextWhileSnapshotting(Cursor cursor) throws IOException {
+        concordance.readText(new StringReader(cursor.next(documents)));
+        return concordance;
+    }
+
+    @Benchmark
+    @Group("snapshot")
+    @GroupThreads(1)
+    public SortedSet<Entry<String, Integer>> getWords() {
+        return concordance.getWords(Concordance.Sort.ALPHABETIC, false);
+    }
+}
@@ -0,0 +1,125 @@
+//*******************************************************************
+//Author: Spencer E Reeves
+//Last Modified: 10-17-2026
+//
+//Purpose:
+//  Measures completing words from a prefix with wordsWithPrefix, and listing a
+//  page of words with wordsBetween against a subSet of the alphabetic set doing
+//  the same job. Pages are bounded by words of the concordance, or by strings
+//  that are not words and so need a collation key. The word index and the
+//  alphabetic set are built before measuring.
+//*******************************************************************
+package com.pkc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class QueryBenchmark {
+
+    private static final int QUERIES = 1024;
+    private static final int LIMIT = 10;
+
+    @Param({"false", "true"})
+    public boolean ignoreCase;
+
+    @Param({"1000", "100000"})
+    public int vocabulary;
+
+    @Param({"latin", "mixed"})
+    public String scripts;
+
+    @Param({"1000000"})
+    public int words;
+
+    @Param({"1.0"})
+    public double exponent;
+
+    private Path file;
+    private Concordance concordance;
+    private SortedSet<Entry<String, Integer>> alphabetic;
+    private final String[] prefixes = new String[QUERIES];
+    private final String[] froms = new String[QUERIES];
+    private final String[] tos = new String[QUERIES];
+    private int query;
+
+    @Setup
+    public void setup() throws IOException {
+        Random random = new Random(42);
+        String[] vocab = SyntheticCorpus.vocabulary(vocabulary, SyntheticCorpus.scripts(scripts), random);
+        file = SyntheticCorpus.write(SyntheticCorpus.text(vocab, words, exponent, random));
+        concordance = new Concordance(Locale.getDefault());
+        concordance.readFile(file, ignoreCase);
+
+        alphabetic = concordance.getWords(Concordance.Sort.ALPHABETIC, false);
+        List<Entry<String, Integer>> sorted = new ArrayList<>(alphabetic);
+        for (int i = 0; i < QUERIES; i++) {
+            String word = vocab[random.nextInt(vocab.length)];
+            prefixes[i] = word.substring(0, word.offsetByCodePoints(0, Math.min(word.codePointCount(0, word.length()), 1 + random.nextInt(3))));
+            int from = random.nextInt(sorted.size());
+            froms[i] = sorted.get(from).getKey();
+            tos[i] = sorted.get(Math.min(sorted.size() - 1, from + LIMIT)).getKey();
+        }
+        concordance.wordsWithPrefix("", 0);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public List<Entry<String, Integer>> wordsWithPrefix() {
+        return concordance.wordsWithPrefix(prefixes[next()], LIMIT);
+    }
+
+    @Benchmark
+    public List<Entry<String, Integer>> wordsBetween() {
+        int i = next();
+        return concordance.wordsBetween(froms[i], tos[i]);
+    }
+
+    @Benchmark
+    public List<Entry<String, Integer>> wordsBetweenNonWords() {
+        int i = next();
+        return concordance.wordsBetween(froms[i] + "-", tos[i] + "-");
+    }
+
+    @Benchmark
+    public List<Entry<String, Integer>> subSet() {
+        int i = next();
+        return new ArrayList<>(alphabetic.subSet(new SimpleImmutableEntry<>(froms[i], 0), new SimpleImmutableEntry<>(tos[i], 0)));
+    }
+
+    private int next() {
+        query = (query + 1) & (QUERIES - 1);
+        return query;
+    }
+}
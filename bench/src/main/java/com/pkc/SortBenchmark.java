@@ -0,0 +1,95 @@
+//*******************************************************************
+//Author: Spencer E Reeves
+//Last Modified: 10-17-2026
+//
+//Purpose:
+//  Measures sorting the words of a concordance, alphabetically and by frequency,
+//  with and without ignoring case. A fresh concordance is read before every call
+//  so the sorted sets are always built from scratch, and the reading is left out
+//  of the measurement.
+//*******************************************************************
+package com.pkc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+public class SortBenchmark {
+
+    @Param({"false", "true"})
+    public boolean ignoreCase;
+
+    @Param({"1000", "100000"})
+    public int vocabulary;
+
+    @Param({"latin", "mixed"})
+    public String scripts;
+
+    @Param({"1000000"})
+    public int words;
+
+    @Param({"1.0"})
+    public double exponent;
+
+    private Path file;
+    private Concordance concordance;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Random random = new Random(42);
+        String[] vocab = SyntheticCorpus.vocabulary(vocabulary, SyntheticCorpus.scripts(scripts), random);
+        file = SyntheticCorpus.write(SyntheticCorpus.text(vocab, words, exponent, random));
+    }
+
+    @Setup(Level.Iteration)
+    public void read() throws IOException {
+        concordance = new Concordance(Locale.getDefault());
+        concordance.readFile(file, ignoreCase);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public SortedSet<Entry<String, Integer>> getWordsAlphabetic() {
+        return concordance.getWords(Concordance.Sort.ALPHABETIC, false);
+    }
+
+    @Benchmark
+    public SortedSet<Entry<String, Integer>> getWordsFrequency() {
+        return concordance.getWords(Concordance.Sort.FREQUENCY, false);
+    }
+
+    @Benchmark
+    public List<Entry<String, Integer>> topK() {
+        return concordance.topK(100);
+    }
+}
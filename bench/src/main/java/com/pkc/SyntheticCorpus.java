@@ -0,0 +1,131 @@
+//*******************************************************************
+//Author: Spencer E Reeves
+//Last Modified: 10-17-2026
+//
+//Purpose:
+//  Generates texts for the benchmarks, so they do not depend on the large sample
+//  files. Words are drawn from a vocabulary of a chosen size with a Zipfian
+//  distribution, the way words are spread in natural text, and are written in
+//  one or more scripts, including one outside the BMP.
+//*******************************************************************
+package com.pkc;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+final class SyntheticCorpus {
+
+    /**
+     * The scripts words can be written in, each with the letters used.
+     */
+    enum Script {
+        LATIN("abcdefghijklmnopqrstuvwxyzéèàöüß"),
+        RUNIC("ᚠᚢᚦᚩᚱᚳᚷᚹᚻᚾᛁᛄᛇᛈᛉᛋᛏᛒᛖᛗᛚᛝᛟᛞᚪᚫᚣᛡᛠ"),
+        ARABIC("ابتثجحخدذرزسشصضطظعغفقكلمنهوي"),
+        SUPPLEMENTARY("𐊀𐊁𐊂𐊃𐊄𐊅𐊆𐊇𐊈𐊉𐊊𐊋𐊌𐊍𐊎𐊏𐊐𐊑𐊒𐊓𐊔𐊕𐊖𐊗𐊘𐊙𐊚𐊛𐊜");
+
+        private final int[] letters;
+
+        Script(String letters) {
+            this.letters = letters.codePoints().toArray();
+        }
+    }
+
+    private static final String[] SEPARATORS = {" ", " ", " ", " ", " ", ", ", ". ", "\n", "; ", " - "};
+    private static final double CAPITALIZED = 0.2;
+
+    private SyntheticCorpus() {
+    }
+
+    /**
+     * Parses a comma separated list of script names, or "mixed" for every script.
+     * @param scripts - The names of the scripts, such as "latin,runic"
+     * @return - The scripts
+     */
+    static Script[] scripts(String scripts) {
+        if (scripts.equalsIgnoreCase("mixed")) {
+            return Script.values();
+        }
+        return Arrays.stream(scripts.split(","))
+                .map(name -> Script.valueOf(name.trim().toUpperCase(Locale.ROOT)))
+                .toArray(Script[]::new);
+    }
+
+    /**
+     * Builds a vocabulary of distinct words, spread evenly over the scripts.
+     * @param size - The number of distinct words
+     * @param scripts - The scripts the words are written in
+     * @param random - The source of randomness
+     * @return - The words, most frequent first
+     */
+    static String[] vocabulary(int size, Script[] scripts, Random random) {
+        Set<String> seen = new HashSet<>();
+        String[] words = new String[size];
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < size; ) {
+            Script script = scripts[i % scripts.length];
+            int length = 1 + (int) Math.min(15, Math.abs(random.nextGaussian() * 3 + 4));
+            sb.setLength(0);
+            for (int j = 0; j < length; j++) {
+                sb.appendCodePoint(script.letters[random.nextInt(script.letters.length)]);
+            }
+            if (seen.add(sb.toString())) {
+                words[i++] = sb.toString();
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Generates a text. One word in five is capitalized, so ignoring case merges
+     *   some of the words.
+     * @param vocabulary - The distinct words, most frequent first
+     * @param words - The number of words in the text
+     * @param exponent - The exponent of the Zipfian distribution, 1 for English
+     * @param random - The source of randomness
+     * @return - The text
+     */
+    static String text(String[] vocabulary, int words, double exponent, Random random) {
+        double[] cumulative = new double[vocabulary.length];
+        double total = 0;
+        for (int i = 0; i < vocabulary.length; i++) {
+            total += 1 / Math.pow(i + 1, exponent);
+            cumulative[i] = total;
+        }
+
+        StringBuilder sb = new StringBuilder(words * 8);
+        for (int i = 0; i < words; i++) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+            String word = vocabulary[Math.min(vocabulary.length - 1, index < 0 ? -index - 1 : index)];
+            if (random.nextDouble() < CAPITALIZED) {
+                int first = word.codePointAt(0);
+                sb.appendCodePoint(Character.toUpperCase(first)).append(word, Character.charCount(first), word.length());
+            } else {
+                sb.append(word);
+            }
+            sb.append(SEPARATORS[random.nextInt(SEPARATORS.length)]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes a text to a temporary UTF-8 encoded file.
+     * @param text - The text to be written
+     * @return - The path of the file
+     * @throws IOException
+     */
+    static Path write(String text) throws IOException {
+        Path file = Files.createTempFile("concordance-bench", ".txt");
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+        file.toFile().deleteOnExit();
+        return file;
+    }
+}
@@ -1,6 +1,6 @@
 //*******************************************************************
 //Author: Spencer E Reeves
-//Last Modified: 08-07-2017
+//Last Modified: 10-17-2026
 //
 //Restrictions:
 //  English Apostrophes and Hyphenated words: This library does not support apostrophes
@@ -8,49 +8,137 @@
 //    this feature due to the cost vs benfit analysis.
 //
 //Design Decisions:
-//  Use of MutableInt vs Integer in hashmap - One can create a custome wrapper class
-//    that contains an integer and a function to increment that integer.  By doing
-//    this, you can find a optimization in the code. I left it out to keep the code
-//    as simple, clean, and readable as possible
-//  Multithread vs singlethreaded - I choose to singlethread my application primarily
-//    due to the costs of context switching.  It is possible to get a performance
-//    gain under the right conditions with multithreading, but for the average file
-//    the performance gain is minimal and the increase in complexity is large.
+//  WordTable vs HashMap - Words are counted in a WordTable, an open addressing table
+//    that keeps each word in a shared char arena and its count in an int array.
+//    Counting a word takes a single probe, never boxes the count, and a distinct
+//    word costs about a third of the memory a HashMap entry would.
+//  Multithread vs singlethreaded - readText stays singlethreaded since a Reader can
+//    only be consumed sequentially and, for the average file, the cost of context
+//    switching outweighs the gain.  readFile splits a file into byte ranges that
+//    end on a word boundary, counts each range on a fork-join pool into a table per
+//    thread, and merges those tables once every range has been read.
+//  Tokenizing - Text is read in blocks into a reusable char buffer and split by a
+//    WordTokenizer, which builds, lowercases and hashes each word in place, for
+//    the locale of the concordance. The WordTable compares the word against the
+//    arena in place, so its characters are only copied the first time the word
+//    is seen.
+//  Sorted views - The sets returned by getWords are built once and then kept up to
+//    date. The word table tracks which words changed, so after more text is read
+//    only the new and changed words are moved within the sets.
+//  Collation keys - Each entry holds the CollationKey of its word, computed once
+//    per distinct word, so sorting compares keys instead of running the collator
+//    on every comparison. A set is first built from a parallel sort of the entries.
+//  Word index - wordsWithPrefix and wordsBetween are served by a WordIndex of
+//    primitive arrays rather than a sorted set. It is built by the first query, as
+//    the sets are by getWords, and the words read after are merged into it.
+//  Saved files - save writes the words to a WordFile, sorted and front coded. load
+//    maps the file and serves getWordFrequency and the alphabetic set straight
+//    from it. The words are only copied into the word table once the concordance
+//    needs them there, such as when more text is read.
+//  Positions - A positional concordance also records where every word occurs, in
+//    compressed Postings kept by word id. Positions are counted in chars, so a
+//    positional concordance reads files through a decoder instead of scanning
+//    their bytes. A concordance that only counts never creates the postings.
+//  Approximate counting - An approximate concordance counts words in a fixed size
+//    FrequencySketch instead of the word table, so a vocabulary that grows without
+//    bound can not run it out of memory. Frequencies are estimates and only the
+//    most frequent words are kept, so the operations that need every word, such
+//    as the alphabetic queries, saving and merging, are not supported.
+//  Spilling - An external concordance counts exactly with a cap on the words held
+//    in memory. Once its word table holds that many words, they are sorted by
+//    collation key and written to a temporary WordFile as a run, and the table
+//    starts over. A frequency is the sum of the table and every run, and the
+//    sorted views merge the runs into one file and serve it as load does.
+//  N-grams - A concordance created by nGrams also counts the runs of consecutive
+//    words of each text in an NGramTable, keyed by the ids the words have in the
+//    word table, so a phrase is counted without a String being built for it.
+//    Its files are read on one thread, as no run of words may be cut between
+//    two ranges.
+//  Metrics - The tokenizers count the bytes, chars, code points and words they
+//    scan, and the counts are added to the Metrics of the concordance once per
+//    text. The phases are timed only while stats are enabled, and reads and
+//    sorts are handed to the flight recorder, which records them when a 
+//    recording asks for them. getStats and an optional MBean expose the totals.
+//  Merging - Concordances counted apart, such as on several machines, are combined
+//    with merge. Saved files double as partial results: they are already sorted,
+//    so any number of them are merged in one streaming pass into a new file.
 //
 //Improvements:
 //  Add a logger - Although java has a built in logger framework, there are other
 //    libraries that are significantly better and more efficient.
-//  Migrate to a multithread solution - Although this will not result in a significant
-//    gain for the average case, this will provide a significant gain for the edge
-//    cases with a very large file.
-//  Use a MutableInt for the HashMap - This will have a performance increase for
-//    when a word has already been added to the map.
 //
 //*******************************************************************
 package com.pkc;
 
-import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.text.Collator;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map.Entry;
+import java.util.PriorityQueue;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
 
 public class Concordance {
     
+    private static final long MIN_CHUNK_SIZE = 1L << 20;
+    private static final long MAX_CHUNK_SIZE = 1L << 26;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int BUFFER_SIZE = 8192;
+    private static final long MAX_MAP_SIZE = 1L << 30;
+    private static final int MIN_PARALLEL_WORDS = 4096;
+    
+    private final Locale locale;
     private final Collator collator;
     private boolean ignoreCase = false;
     
     private final Comparator<Entry<String, Integer>> BY_ALPHABETIC;
     private final Comparator<Entry<String, Integer>> BY_FREQUENCY;
 
-    private final HashMap<String, Integer> wordMap = new HashMap<>();
+    private final WordTable wordTable = new WordTable();
+    private final ArrayList<WordEntry> entries = new ArrayList<>();
     private final TreeSet<Entry<String, Integer>> alphaSet;
     private final TreeSet<Entry<String, Integer>> freqSet;
+    private final Postings postings;
+    private final FrequencySketch sketch;
+    private final WordRuns runs;
+    private final NGramTable nGrams;
+    private final Metrics metrics = new Metrics();
+    private int texts = 0;
+    private WordIndex index;
+    private WordFile wordFile;
     
     public enum Sort {
         ALPHABETIC,
@@ -62,24 +150,116 @@ public class Concordance {
      * @param locale - The local sorting to be used when reading a text.
      */
     public Concordance(Locale locale){
+        this(locale, false);
+    }
+    
+    /**
+     * Instantiates a new concordance instance that can also record where each word
+     *   occurs.
+     * @param locale - The local sorting to be used when reading a text.
+     * @param positional - boolean for if the occurrences of every word should be recorded
+     */
+    public Concordance(Locale locale, boolean positional){
+        this(locale, positional ? new Postings() : null, null, null, null);
+    }
+    
+    /**
+     * Instantiates a new concordance instance.
+     * @param locale - The local sorting to be used when reading a text.
+     * @param postings - The postings occurrences are recorded in, or null
+     * @param sketch - The sketch words are counted in for an approximate concordance, or null
+     * @param runs - The runs words are spilled to for an external concordance, or null
+     * @param nGrams - The table n-grams are counted in, or null
+     */
+    private Concordance(Locale locale, Postings postings, FrequencySketch sketch, WordRuns runs, NGramTable nGrams){
+        this.locale = locale;
+        this.postings = postings;
+        this.sketch = sketch;
+        this.runs = runs;
+        this.nGrams = nGrams;
         collator = Collator.getInstance(locale);
         
-        BY_ALPHABETIC = (o1, o2) -> {return collator.compare(o1.getKey(), o2.getKey());};
+        BY_ALPHABETIC = (o1, o2) -> {return WordEntry.compare(collator, o1, o2);};
         BY_FREQUENCY = (o1, o2) -> {
             int comp = o2.getValue().compareTo(o1.getValue());
-            return (comp == 0) ? collator.compare(o1.getKey(), o2.getKey()) : comp;};
+            return (comp == 0) ? WordEntry.compare(collator, o1, o2) : comp;};
         
         alphaSet = new TreeSet(BY_ALPHABETIC);
         freqSet = new TreeSet(BY_FREQUENCY);
     }
     
+    /**
+     * Creates a concordance that counts words approximately in a fixed amount of
+     *   memory, however many distinct words its texts hold. getWordFrequency 
+     *   returns an estimate that is never below the frequency of the word, and 
+     *   exceeds it by more than epsilon times the number of words read with a 
+     *   probability of at most delta. getWords and topK return the most frequent 
+     *   words, of which up to capacity are kept.
+     * @param locale - The local sorting to be used when reading a text.
+     * @param capacity - The number of most frequent words kept
+     * @param epsilon - The error of an estimate, as a share of the number of words read
+     * @param delta - The probability of an estimate exceeding that error
+     * @return - An empty approximate concordance
+     */
+    public static Concordance approximate(Locale locale, int capacity, double epsilon, double delta) {
+        return new Concordance(locale, null, new FrequencySketch(capacity, epsilon, delta), null, null);
+    }
+    
+    /**
+     * Creates a concordance that counts words exactly while holding no more than
+     *   maxWords distinct words in memory. Once it holds that many, they are 
+     *   sorted and spilled to a temporary file, so a vocabulary larger than the 
+     *   heap can still be counted. A distinct word held in memory costs roughly 
+     *   its chars plus 40 bytes, and its collation key while it is spilled. The
+     *   methods that merge the spilled words, such as getWords, throw an 
+     *   UncheckedIOException if they can not be written or read. The frequency 
+     *   set holds every word in memory, while topK and bottomK hold only k.
+     * @param locale - The local sorting to be used when reading a text.
+     * @param maxWords - The number of distinct words held in memory before they are spilled
+     * @param directory - The directory the spilled words are written to, or null
+     *   for the default temporary directory
+     * @return - An empty external concordance
+     */
+    public static Concordance external(Locale locale, int maxWords, Path directory) {
+        return new Concordance(locale, null, null, new WordRuns(maxWords, directory), null);
+    }
+    
+    /**
+     * Creates a concordance that counts, besides its words, every run of 2 up to
+     *   n consecutive words in each text, to be listed by getNGrams. A run does
+     *   not reach from one text into the next. The n-grams are not saved by save,
+     *   and are only merged into a concordance that counts them too.
+     * @param locale - The local sorting to be used when reading a text.
+     * @param n - The number of words in the longest n-gram, at least 2
+     * @return - An empty concordance counting n-grams
+     */
+    public static Concordance nGrams(Locale locale, int n) {
+        return new Concordance(locale, null, null, null, new NGramTable(n));
+    }
+    
     /**
      * Clears the words from the map if there are any.
      */
     public void clear() {
-        wordMap.clear(); 
+        wordFile = null;
+        wordTable.clear(); 
+        entries.clear();
         alphaSet.clear(); 
         freqSet.clear();
+        index = null;
+        if (sketch != null) {
+            sketch.clear();
+        }
+        if (runs != null) {
+            runs.clear();
+        }
+        if (nGrams != null) {
+            nGrams.clear();
+        }
+        if (postings != null) {
+            postings.clear();
+            texts = 0;
+        }
     }
     
     /**
@@ -88,7 +268,67 @@ public class Concordance {
      * @return - Returns the frequency of the word.  0 if the word is not in the map
      */
     public int getWordFrequency(String word){
-        return wordMap.getOrDefault(ignoreCase ? word.toLowerCase() : word, 0);
+        if (sketch != null) {
+            return (int) Math.min(Integer.MAX_VALUE, sketch.estimate(ignoreCase ? word.toLowerCase(locale) : word));
+        } else if (wordFile != null) {
+            return wordFile.frequency(ignoreCase ? word.toLowerCase(locale) : word);
+        }
+        int id = wordTable.find(ignoreCase ? word.toLowerCase(locale) : word);
+        int count = id < 0 ? 0 : wordTable.count(id);
+        if (isSpilled()) {
+            return (int) Math.min(Integer.MAX_VALUE, count + runs.frequency(ignoreCase ? word.toLowerCase(locale) : word));
+        }
+        return count;
+    }
+    
+    /**
+     * @return - The most an estimate of getWordFrequency exceeds the frequency of 
+     *   the word, unless the unlikely happens. 0 for a concordance that is not
+     *   approximate, whose frequencies are exact.
+     */
+    public long getErrorBound() {
+        return (sketch == null) ? 0 : sketch.errorBound();
+    }
+    
+    /**
+     * Takes a snapshot of the work done so far. Counters add up over the life of
+     *   the concordance and are not reset by clear. They are added once a text
+     *   has been read, so an open feed is not counted until it is finished.
+     * @return - The counters, and the timers if stats have been enabled
+     */
+    public ConcordanceStats getStats() {
+        return metrics.snapshot((wordFile != null) ? wordFile.size() : wordTable.size(), wordTable.resizes());
+    }
+    
+    /**
+     * @return - Whether the phases of reading and sorting are being timed
+     */
+    public boolean isStatsEnabled() {
+        return metrics.isEnabled();
+    }
+    
+    /**
+     * Turns the timers of getStats on or off. They are off by default. The 
+     *   counters are always kept, as they cost a few additions per text and word.
+     * @param enabled - Whether the phases of reading and sorting are to be timed
+     */
+    public void setStatsEnabled(boolean enabled) {
+        metrics.setEnabled(enabled);
+    }
+    
+    /**
+     * Registers an MBean showing getStats over JMX, under the name 
+     *   com.pkc:type=Concordance,name=<name>. The MBean keeps the concordance 
+     *   reachable until it is unregistered with the returned name. Its stats are
+     *   read without a lock, so they may be a moment behind a text being read.
+     * @param name - The name the concordance is shown under
+     * @return - The name the MBean was registered with
+     * @throws JMException if the name is taken or not valid
+     */
+    public ObjectName registerMBean(String name) throws JMException {
+        ObjectName objectName = new ObjectName("com.pkc:type=Concordance,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(new StandardMBean(new Management(), ConcordanceMXBean.class, true), objectName);
+        return objectName;
     }
     
     /**
@@ -99,55 +339,1340 @@ public class Concordance {
      * @throws IOException 
      */
     public void readText(Reader input, boolean ignoreCase) throws IOException{
-        try (BufferedReader reader = new BufferedReader(input)) {
+        try (Reader reader = input) {
 
-            String line;
-            StringBuilder sb = new StringBuilder();
+            loadWords();
+            char[] buffer = new char[BUFFER_SIZE];
+            WordTokenizer tokenizer = tokenizer(ignoreCase);
             this.ignoreCase = ignoreCase;
+            long start = metrics.start();
+            Object event = Metrics.EVENTS.beginRead();
 
-            while ((line = reader.readLine()) != null) {
-                line.codePoints().forEach(cp -> {
-                    if (Character.isAlphabetic(cp)) {
-                        sb.append(Character.toChars(cp));
-                    } else if (sb.length() != 0) {
-                        addWord(ignoreCase ? sb.toString().toLowerCase() : sb.toString());
-                        sb.setLength(0);
+            int count;
+            while ((count = reader.read(buffer)) != -1) {
+                tokenizer.scan(buffer, 0, count);
+            }
+            tokenizer.finish();
+            finished(tokenizer, "readText", ignoreCase, start, event);
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+    
+    /**
+     * Reads a UTF-8 encoded file and maps the words to the number of times each 
+     *   occurs. The file is memory mapped and its bytes are split into words 
+     *   directly, without first decoding the whole text into chars. A positional
+     *   concordance decodes the file instead, to count offsets in chars.
+     * @param file - Path of the UTF-8 encoded file to be read
+     * @param ignoreCase - boolean for if the case should be ignored
+     * @throws IOException 
+     */
+    public void readFile(Path file, boolean ignoreCase) throws IOException {
+        if (postings != null) {
+            readText(new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8), ignoreCase);
+            return;
+        }
+        
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            
+            loadWords();
+            WordTokenizer tokenizer = tokenizer(ignoreCase);
+            this.ignoreCase = ignoreCase;
+            long start = metrics.start();
+            Object event = Metrics.EVENTS.beginRead();
+            
+            long size = channel.size();
+            for (long position = 0; position < size; position += MAX_MAP_SIZE) {
+                tokenizer.scan(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAX_MAP_SIZE, size - position)));
+            }
+            tokenizer.finish();
+            finished(tokenizer, "readFile", ignoreCase, start, event);
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+    
+    /**
+     * Reads a UTF-8 encoded file using several threads. The file is split into 
+     *   byte ranges that begin on a non alphabetic character, so no word spans two
+     *   ranges, and each memory mapped range is counted into a table owned by its
+     *   thread. The tables are merged once every range has been read, giving the
+     *   same words and frequencies as readText. A positional concordance reads 
+     *   the file on one thread, so its occurrences stay in order, and so do an
+     *   approximate one, which has a single sketch, an external one, which 
+     *   must not hold a table per thread, and one counting n-grams, whose runs of
+     *   words must not be cut between ranges.
+     * @param file - Path of the UTF-8 encoded file to be read
+     * @param ignoreCase - boolean for if the case should be ignored
+     * @param threads - The number of threads used to read the file
+     * @throws IOException 
+     */
+    public void readFile(Path file, boolean ignoreCase, int threads) throws IOException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread expected: " + threads);
+        } else if (postings != null || sketch != null || runs != null || nGrams != null) {
+            readFile(file, ignoreCase);
+            return;
+        }
+        
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            loadWords();
+            this.ignoreCase = ignoreCase;
+            long start = metrics.start();
+            Object event = Metrics.EVENTS.beginRead();
+            
+            long[] bounds = splitFile(channel, threads);
+            int workers = Math.min(threads, bounds.length - 1);
+            AtomicInteger next = new AtomicInteger();
+            WordTokenizer[] tokenizers = new WordTokenizer[workers];
+            
+            List<Callable<WordTable>> tasks = new ArrayList<>(workers);
+            for (int i = 0; i < workers; i++) {
+                int worker = i;
+                tasks.add(() -> {
+                    WordTable words = new WordTable();
+                    WordTokenizer tokenizer = new WordTokenizer(locale, ignoreCase, words);
+                    tokenizers[worker] = tokenizer;
+                    
+                    int range;
+                    while ((range = next.getAndIncrement()) < bounds.length - 1) {
+                        long offset = bounds[range];
+                        tokenizer.scan(channel.map(FileChannel.MapMode.READ_ONLY, offset, bounds[range + 1] - offset));
+                        tokenizer.finish();
                     }
+                    return words;
                 });
-                if (sb.length() != 0) {
-                    addWord(ignoreCase ? sb.toString().toLowerCase() : sb.toString());
-                    sb.setLength(0);
+            }
+            
+            ForkJoinPool pool = new ForkJoinPool(workers);
+            try {
+                List<Future<WordTable>> results = pool.invokeAll(tasks);
+                metrics.tokenized(start);
+                long counting = metrics.start();
+                for (Future<WordTable> result : results) {
+                    WordTable words = result.get();
+                    wordTable.addAll(words);
+                    metrics.resized(words.resizes());
                 }
+                metrics.counted(counting);
+                
+                long bytes = 0;
+                long tokens = 0;
+                for (WordTokenizer tokenizer : tokenizers) {
+                    metrics.read(tokenizer);
+                    bytes += tokenizer.bytes();
+                    tokens += tokenizer.tokens();
+                }
+                Metrics.EVENTS.endRead(event, "readFile", ignoreCase, bytes, 0, tokens);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while reading " + file, ex);
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof IOException) {
+                    throw (IOException) ex.getCause();
+                }
+                throw new IOException("Failed to read " + file, ex.getCause());
+            } finally {
+                pool.shutdown();
             }
         }
     }
     
     /**
-     * Sorts the words if they have not already been sorted.  
+     * Opens a feed for reading a text that arrives in pieces, such as chunks read 
+     *   from a socket. Words are counted as soon as they are complete, a word or 
+     *   UTF-8 sequence split between two pieces is carried over, and no thread has
+     *   to block waiting for the rest of the text. Several feeds can be open at once.
+     * @param ignoreCase - boolean for if the case should be ignored
+     * @return - The feed the pieces of the text are given to
+     */
+    public Feed openFeed(boolean ignoreCase) {
+        loadWords();
+        this.ignoreCase = ignoreCase;
+        return new Feed(tokenizer(ignoreCase), ignoreCase);
+    }
+    
+    /**
+     * Sorts the words if they have not already been sorted. A set that has been
+     *   sorted is kept up to date as more text is read, by moving only the words
+     *   that were added or whose frequency changed.
      * @param order - The sorting method to be used.
      * @param reversed - Whether or not to reverse the set of words.
-     * @return - A set of the words ordered defined by the parameters
+     * @return - A set of the words ordered defined by the parameters. The 
+     *   alphabetic set of a loaded concordance is read only, as is that of an 
+     *   external concordance that has spilled words, which is served from its 
+     *   merged runs. The frequency set of such a concordance is built anew from
+     *   the runs by every call. An approximate concordance returns a new set of 
+     *   the most frequent words it kept.
      */
     public SortedSet<Entry<String,Integer>> getWords(Sort order, boolean reversed){
+        if (sketch != null) {
+            TreeSet<Entry<String, Integer>> set = new TreeSet<>(order.equals(Sort.ALPHABETIC) ? BY_ALPHABETIC : BY_FREQUENCY);
+            for (String word : sketch.heavyHitters()) {
+                set.add(new WordEntry(collator.getCollationKey(word), (int) Math.min(Integer.MAX_VALUE, sketch.estimate(word))));
+            }
+            return reversed ? set.descendingSet() : set;
+        }
+        if (wordFile != null && order.equals(Sort.ALPHABETIC)) {
+            return wordFile.view(reversed);
+        } else if (isSpilled()) {
+            WordFile words = compact();
+            if (order.equals(Sort.ALPHABETIC)) {
+                return words.view(reversed);
+            }
+            
+            String[] spilled = new String[words.size()];
+            int[] counts = new int[words.size()];
+            WordFile.Cursor cursor = words.cursor(0);
+            for (int i = 0; cursor.next(); i++) {
+                spilled[i] = cursor.word();
+                counts[i] = cursor.count();
+            }
+            TreeSet<Entry<String, Integer>> set = new TreeSet<>(BY_FREQUENCY);
+            WordEntry[] spilledEntries = entries(spilled.length, i -> spilled[i], i -> counts[i]);
+            long start = metrics.start();
+            Object event = Metrics.EVENTS.beginSort();
+            set.addAll(sort(Arrays.asList(spilledEntries), BY_FREQUENCY));
+            metrics.sorted(start);
+            Metrics.EVENTS.endSort(event, order.name(), set.size());
+            return reversed ? set.descendingSet() : set;
+        }
+        loadWords();
         TreeSet<Entry<String, Integer>> set = order.equals(Sort.ALPHABETIC) ? alphaSet : freqSet;
         
-        if (set.isEmpty()) {
-            wordMap.entrySet().forEach((entry) -> {set.add(entry);});
+        updateEntries();
+        if (set.isEmpty() && !entries.isEmpty()) {
+            long start = metrics.start();
+            Object event = Metrics.EVENTS.beginSort();
+            set.addAll(sort(entries, set.comparator()));
+            metrics.sorted(start);
+            Metrics.EVENTS.endSort(event, order.name(), set.size());
         }
         
         return reversed ? set.descendingSet() : set;
     }
     
     /**
-     * Adds a word to the word map.
-     * @param word 
+     * Lists the words that begin with a prefix, such as to complete a word as it
+     *   is typed. The prefix is matched on chars, the way getWordFrequency matches
+     *   a word, and the words are listed in alphabetic order. An external 
+     *   concordance that has spilled words scans its merged runs instead.
+     * @param prefix - The chars every word must begin with
+     * @param limit - The most words to be returned
+     * @return - Up to limit entries, in alphabetic order
+     */
+    public List<Entry<String, Integer>> wordsWithPrefix(String prefix, int limit) {
+        checkExact();
+        if (limit < 0) {
+            throw new IllegalArgumentException("The number of words can not be negative: " + limit);
+        } else if (isSpilled()) {
+            return withPrefix(compact(), ignoreCase ? prefix.toLowerCase(locale) : prefix, limit);
+        }
+        return index().withPrefix(ignoreCase ? prefix.toLowerCase(locale) : prefix, limit);
+    }
+    
+    /**
+     * Lists the words that sort from one word up to another, as a subSet of the
+     *   alphabetic set would. A bound that is not a word of the concordance is 
+     *   given a collation key, every other lookup is on chars.
+     * @param from - The low bound, included
+     * @param to - The high bound, excluded
+     * @return - The entries of the words in alphabetic order, or none if to sorts
+     *   before from
+     */
+    public List<Entry<String, Integer>> wordsBetween(String from, String to) {
+        checkExact();
+        if (isSpilled()) {
+            String low = ignoreCase ? from.toLowerCase(locale) : from;
+            String high = ignoreCase ? to.toLowerCase(locale) : to;
+            if (collator.compare(low, high) >= 0) {
+                return new ArrayList<>();
+            }
+            return new ArrayList<>(compact().view(false).subSet(new SimpleImmutableEntry<>(low, 0), new SimpleImmutableEntry<>(high, 0)));
+        }
+        WordIndex words = index();
+        return words.between(rank(words, from), rank(words, to));
+    }
+    
+    /**
+     * Saves the words and their frequencies to a compact binary file, along with
+     *   the locale and whether case was ignored. The words are kept in alphabetic
+     *   order, so load can serve them without sorting. N-grams are not saved.
+     * @param file - Path of the file to be written
+     * @throws IOException 
+     */
+    public void save(Path file) throws IOException {
+        checkExact();
+        if (wordFile != null) {
+            wordFile.copyTo(file);
+            return;
+        } else if (isSpilled()) {
+            compact().copyTo(file);
+            return;
+        }
+        write(file, false);
+    }
+    
+    /**
+     * Writes the words of the word table to a file in the order of their 
+     *   collation keys, ties broken by comparing chars.
+     * @param file - Path of the file to be written
+     * @param filtered - Whether a filter of the words is wanted
+     * @return - The filter of the words written, or null if it is not wanted
+     * @throws IOException 
+     */
+    private WordFilter write(Path file, boolean filtered) throws IOException {
+        updateEntries();
+        WordEntry[] sorted = entries.toArray(new WordEntry[entries.size()]);
+        Arrays.parallelSort(sorted, (o1, o2) -> {
+            int comp = o1.getCollationKey().compareTo(o2.getCollationKey());
+            return (comp == 0) ? o1.getKey().compareTo(o2.getKey()) : comp;});
+        
+        try (WordFile.Writer writer = new WordFile.Writer(file, locale, ignoreCase)) {
+            for (int i = 0; i < sorted.length; i++) {
+                boolean duplicate = i > 0 && sorted[i - 1].getCollationKey().compareTo(sorted[i].getCollationKey()) == 0;
+                writer.add(sorted[i].getKey(), sorted[i].getValue(), duplicate);
+            }
+            writer.finish();
+            return filtered ? writer.filter() : null;
+        }
+    }
+    
+    /**
+     * Loads a concordance saved with save. The file is memory mapped, and 
+     *   getWordFrequency and the alphabetic set are served from it directly, so
+     *   loading takes about as long as opening the file.
+     * @param file - Path of a file written by save
+     * @return - A concordance with the locale, case setting and words of the file
+     * @throws IOException if the file can not be read or was not written by save
+     */
+    public static Concordance load(Path file) throws IOException {
+        WordFile words = WordFile.open(file);
+        Concordance concordance = new Concordance(words.getLocale());
+        concordance.ignoreCase = words.isIgnoreCase();
+        concordance.wordFile = words;
+        return concordance;
+    }
+    
+    /**
+     * Lists where a word occurs, in a concordance created as positional. The
+     *   occurrences are decoded one at a time as they are iterated.
+     * @param word - The word to be searched for
+     * @return - The occurrences of the word read so far, in the order they were read
+     */
+    public Iterator<Occurrence> getOccurrences(String word) {
+        if (postings == null) {
+            throw new IllegalStateException("The concordance does not record occurrences.");
+        }
+        return postings.occurrences(wordTable.find(ignoreCase ? word.toLowerCase(locale) : word));
+    }
+    
+    /**
+     * Adds the words and frequencies of another concordance to this one. Both must
+     *   sort by the same locale and, unless either has no words, agree on whether
+     *   case is ignored. An external concordance spills the words it is given as
+     *   it would the words of a text. The n-grams of the other concordance are
+     *   added, up to the longest this one counts, if this one counts n-grams.
+     * @param other - The concordance to be merged into this one, left unchanged
+     * @throws UncheckedIOException if spilled words can not be written or read
+     */
+    public void merge(Concordance other) {
+        checkExact();
+        other.checkExact();
+        if (!locale.equals(other.locale)) {
+            throw new IllegalArgumentException("Can not merge a concordance for " + other.locale + " into one for " + locale);
+        } else if (other.isEmpty()) {
+            return;
+        } else if (isEmpty()) {
+            ignoreCase = other.ignoreCase;
+        } else if (ignoreCase != other.ignoreCase) {
+            throw new IllegalArgumentException("Can not merge a concordance with ignoreCase " + other.ignoreCase + " into one with ignoreCase " + ignoreCase);
+        }
+        
+        loadWords();
+        long start = metrics.start();
+        try {
+            WordFile words = other.isSpilled() ? other.compact() : other.wordFile;
+            if (words != null) {
+                for (WordFile.Cursor cursor = words.cursor(0); cursor.next(); ) {
+                    add(cursor.word(), cursor.count());
+                }
+            }
+            if (runs == null) {
+                wordTable.addAll(other.wordTable);
+                if (nGrams != null && other.nGrams != null) {
+                    int[] ids = new int[other.wordTable.size()];
+                    for (int id = 0; id < ids.length; id++) {
+                        ids[id] = wordTable.find(other.wordTable.word(id));
+                    }
+                    nGrams.addAll(other.nGrams, ids);
+                }
+            } else {
+                for (int id = 0; id < other.wordTable.size(); id++) {
+                    add(other.wordTable.word(id), other.wordTable.count(id));
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        metrics.counted(start);
+    }
+    
+    /**
+     * Merges files written by save, such as the partial results of several workers,
+     *   into one file that load can read. The files are read side by side in a 
+     *   single pass, so only one word per file is held in memory.
+     * @param partials - The files to be merged, all with the same locale and case setting
+     * @param merged - Path of the file to be written, which must not be one of the partials
+     * @throws IOException 
+     */
+    public static void merge(List<Path> partials, Path merged) throws IOException {
+        if (partials.isEmpty()) {
+            throw new IllegalArgumentException("At least one partial expected.");
+        }
+        
+        List<WordFile> files = new ArrayList<>(partials.size());
+        for (Path partial : partials) {
+            if (Files.exists(merged) && Files.isSameFile(partial, merged)) {
+                throw new IllegalArgumentException("Can not merge into one of the partials: " + merged);
+            }
+            files.add(WordFile.open(partial));
+        }
+        WordFile.merge(files, merged);
+    }
+    
+    /**
+     * Finds the most frequent words without sorting every word. The result is
+     *   the head of getWords(Sort.FREQUENCY, false): ties are broken alphabetically
+     *   and only the words that make the cut are given a collation key.
+     * @param k - The number of words to be returned
+     * @return - Up to k entries, from the most to the least frequent
+     */
+    public List<Entry<String, Integer>> topK(int k) {
+        if (sketch != null) {
+            if (k < 0) {
+                throw new IllegalArgumentException("The number of words can not be negative: " + k);
+            }
+            List<Entry<String, Integer>> result = new ArrayList<>(getWords(Sort.FREQUENCY, false));
+            return result.subList(0, Math.min(k, result.size()));
+        }
+        return select(k, false);
+    }
+    
+    /**
+     * Finds the least frequent words without sorting every word. The result is
+     *   the head of getWords(Sort.FREQUENCY, true): ties are broken in reverse 
+     *   alphabetical order and only the words that make the cut are given a 
+     *   collation key.
+     * @param k - The number of words to be returned
+     * @return - Up to k entries, from the least to the most frequent
+     */
+    public List<Entry<String, Integer>> bottomK(int k) {
+        checkExact();
+        return select(k, true);
+    }
+    
+    /**
+     * Lists the n-grams of a concordance created by nGrams, each as its words
+     *   joined by spaces. Alphabetically, n-grams are compared word by word with
+     *   the collator. By frequency, n-grams that occur equally often are ordered
+     *   alphabetically, as the frequency set orders words. Only the n-grams that
+     *   make the cut are sorted.
+     * @param n - The number of words in the n-grams, from 1 up to the n the
+     *   concordance was created with
+     * @param order - The sorting method to be used
+     * @param limit - The most n-grams to be returned
+     * @return - Up to limit entries, the head of the order
+     */
+    public List<Entry<String, Integer>> getNGrams(int n, Sort order, int limit) {
+        if (nGrams == null) {
+            throw new IllegalStateException("Only a concordance created by nGrams counts n-grams.");
+        } else if (n < 1 || n > nGrams.maxN()) {
+            throw new IllegalArgumentException("The number of words must be from 1 to " + nGrams.maxN() + ": " + n);
+        } else if (limit < 0) {
+            throw new IllegalArgumentException("The number of n-grams can not be negative: " + limit);
+        } else if (n == 1 && order.equals(Sort.FREQUENCY)) {
+            return topK(limit);
+        } else if (n == 1) {
+            List<Entry<String, Integer>> result = new ArrayList<>(Math.min(limit, wordTable.size()));
+            for (Iterator<Entry<String, Integer>> it = getWords(order, false).iterator(); result.size() < limit && it.hasNext(); ) {
+                result.add(it.next());
+            }
+            return result;
+        }
+        
+        updateEntries();
+        long start = metrics.start();
+        Object event = Metrics.EVENTS.beginSort();
+        int[] counts = nGrams.counts(n);
+        int[] words1 = new int[n];
+        int[] words2 = new int[n];
+        Comparator<Integer> alphabetic = (o1, o2) -> {
+            nGrams.words(n, o1, words1, 0);
+            nGrams.words(n, o2, words2, 0);
+            for (int i = 0; i < n; i++) {
+                if (words1[i] != words2[i]) {
+                    int comp = entries.get(words1[i]).getCollationKey().compareTo(entries.get(words2[i]).getCollationKey());
+                    if (comp != 0) {
+                        return comp;
+                    }
+                }
+            }
+            return 0;
+        };
+        Comparator<Integer> comparator = order.equals(Sort.ALPHABETIC) ? alphabetic : (o1, o2) -> {
+            int comp = Integer.compare(counts[o2], counts[o1]);
+            return (comp == 0) ? alphabetic.compare(o1, o2) : comp;};
+        
+        int size = counts.length;
+        List<Integer> selected = new ArrayList<>(Math.min(limit, size));
+        if (limit >= size) {
+            for (int id = 0; id < size; id++) {
+                selected.add(id);
+            }
+        } else if (limit > 0) {
+            PriorityQueue<Integer> heap = new PriorityQueue<>(limit, comparator.reversed());
+            for (int id = 0; id < size; id++) {
+                if (heap.size() < limit) {
+                    heap.add(id);
+                } else if ((order.equals(Sort.ALPHABETIC) || counts[id] >= counts[heap.peek()])
+                        && comparator.compare(id, heap.peek()) < 0) {
+                    heap.poll();
+                    heap.add(id);
+                }
+            }
+            selected.addAll(heap);
+        }
+        selected.sort(comparator);
+        
+        List<Entry<String, Integer>> result = new ArrayList<>(selected.size());
+        StringBuilder sb = new StringBuilder();
+        for (int id : selected) {
+            nGrams.words(n, id, words1, 0);
+            sb.setLength(0);
+            for (int i = 0; i < n; i++) {
+                if (i > 0) {
+                    sb.append(' ');
+                }
+                sb.append(entries.get(words1[i]).getKey());
+            }
+            result.add(new SimpleImmutableEntry<>(sb.toString(), counts[id]));
+        }
+        metrics.sorted(start);
+        Metrics.EVENTS.endSort(event, "NGRAMS", result.size());
+        return result;
+    }
+    
+    /**
+     * Selects the head of the frequency ordering. A bounded heap of counts finds
+     *   the count of the k-th word, every word above it is taken, and the words
+     *   tied with it are ranked by the collator in a second bounded heap.
+     * @param k - The number of words to be returned
+     * @param reversed - Whether the least frequent words are wanted
+     * @return - Up to k entries in the order of the frequency set
+     */
+    private List<Entry<String, Integer>> select(int k, boolean reversed) {
+        if (k < 0) {
+            throw new IllegalArgumentException("The number of words can not be negative: " + k);
+        }
+        loadWords();
+        if (isSpilled()) {
+            return (k == 0) ? new ArrayList<>() : select(compact(), k, reversed);
+        }
+        
+        int size = wordTable.size();
+        List<Entry<String, Integer>> result = new ArrayList<>(Math.min(k, size));
+        if (k == 0 || size == 0) {
+            return result;
+        } else if (!freqSet.isEmpty()) {
+            for (Entry<String, Integer> entry : getWords(Sort.FREQUENCY, reversed)) {
+                if (result.size() == k) {
+                    break;
+                }
+                result.add(entry);
+            }
+            return result;
+        }
+        
+        int sign = reversed ? -1 : 1;
+        int threshold = Integer.MIN_VALUE;
+        if (k < size) {
+            int[] heap = new int[k];
+            for (int id = 0; id < size; id++) {
+                int count = sign * wordTable.count(id);
+                if (id < k) {
+                    heap[id] = count;
+                    siftUp(heap, id);
+                } else if (count > heap[0]) {
+                    heap[0] = count;
+                    siftDown(heap, k);
+                }
+            }
+            threshold = heap[0];
+        }
+        
+        Comparator<String> order = reversed ? collator::compare : (o1, o2) -> {return collator.compare(o2, o1);};
+        PriorityQueue<String> ties = new PriorityQueue<>(order);
+        int above = 0;
+        for (int id = 0; id < size; id++) {
+            if (sign * wordTable.count(id) > threshold) {
+                above++;
+            }
+        }
+        
+        for (int id = 0; id < size; id++) {
+            int count = wordTable.count(id);
+            if (sign * count > threshold) {
+                result.add(new WordEntry(collator.getCollationKey(wordTable.word(id)), count));
+            } else if (sign * count == threshold) {
+                ties.add(wordTable.word(id));
+                if (ties.size() > k - above) {
+                    ties.poll();
+                }
+            }
+        }
+        for (String word : ties) {
+            result.add(new WordEntry(collator.getCollationKey(word), sign * threshold));
+        }
+        
+        result.sort(reversed ? BY_FREQUENCY.reversed() : BY_FREQUENCY);
+        return result;
+    }
+    
+    /**
+     * Selects the head of the frequency ordering from the merged runs of an
+     *   external concordance, holding no more than k words. A word is only given
+     *   a collation key when its count makes the cut.
+     * @param words - The merged runs
+     * @param k - The number of words to be returned, more than 0
+     * @param reversed - Whether the least frequent words are wanted
+     * @return - Up to k entries in the order of the frequency set
+     */
+    private List<Entry<String, Integer>> select(WordFile words, int k, boolean reversed) {
+        Comparator<Entry<String, Integer>> order = reversed ? BY_FREQUENCY.reversed() : BY_FREQUENCY;
+        PriorityQueue<Entry<String, Integer>> heap = new PriorityQueue<>(Math.max(1, Math.min(k, words.size())), order.reversed());
+        int sign = reversed ? -1 : 1;
+        for (WordFile.Cursor cursor = words.cursor(0); cursor.next(); ) {
+            if (heap.size() < k || sign * cursor.count() >= sign * heap.peek().getValue()) {
+                heap.add(new WordEntry(collator.getCollationKey(cursor.word()), cursor.count()));
+                if (heap.size() > k) {
+                    heap.poll();
+                }
+            }
+        }
+        
+        List<Entry<String, Integer>> result = new ArrayList<>(heap);
+        result.sort(order);
+        return result;
+    }
+    
+    /**
+     * Lists the words of the merged runs of an external concordance that begin
+     *   with a prefix, scanning them in order until enough are found.
+     * @param words - The merged runs
+     * @param prefix - The chars every word must begin with
+     * @param limit - The most words to be listed
+     * @return - Up to limit entries, in alphabetic order
      */
-    private void addWord(String word) {
-        Integer value = wordMap.get(word);
-        if (value != null) {
-            wordMap.replace(word, value + 1);
-        } else {
-            wordMap.put(word, 1);
+    private static List<Entry<String, Integer>> withPrefix(WordFile words, String prefix, int limit) {
+        List<Entry<String, Integer>> result = new ArrayList<>();
+        for (WordFile.Cursor cursor = words.cursor(0); result.size() < limit && cursor.next(); ) {
+            if (!cursor.isDuplicate() && cursor.word().startsWith(prefix)) {
+                result.add(new SimpleImmutableEntry<>(cursor.word(), cursor.count()));
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Creates the tokenizer for a new text, recording the occurrences of its words
+     *   if the concordance is positional, or counting its n-grams.
+     * @param ignoreCase - boolean for if the case should be ignored
+     * @return - The tokenizer
+     */
+    private WordTokenizer tokenizer(boolean ignoreCase) {
+        if (nGrams != null) {
+            int[] history = nGrams.history();
+            return new WordTokenizer(locale, ignoreCase, (chars, length, hash) -> {
+                nGrams.add(history, wordTable.add(chars, 0, length, hash, 1));
+            });
+        } else if (postings == null) {
+            return new WordTokenizer(locale, ignoreCase, sink());
+        }
+        
+        int text = texts++;
+        return new WordTokenizer(locale, ignoreCase, true, new WordTokenizer.Sink() {
+            @Override
+            public void word(char[] chars, int length, int hash) {
+                wordTable.word(chars, length, hash);
+            }
+            
+            @Override
+            public void word(char[] chars, int length, int hash, long offset) {
+                postings.add(wordTable.add(chars, 0, length, hash, 1), text, offset);
+            }
+        });
+    }
+    
+    /**
+     * Adds the counts of a tokenizer that has finished a text to the stats, and
+     *   records the read.
+     * @param tokenizer - The tokenizer
+     * @param source - The method that read the text
+     * @param ignoreCase - Whether case was ignored
+     * @param start - The start of the phase, from metrics.start()
+     * @param event - The event returned by beginRead
+     */
+    private void finished(WordTokenizer tokenizer, String source, boolean ignoreCase, long start, Object event) {
+        metrics.tokenized(start);
+        metrics.read(tokenizer);
+        Metrics.EVENTS.endRead(event, source, ignoreCase, tokenizer.bytes(), tokenizer.chars(), tokenizer.tokens());
+    }
+    
+    /**
+     * @return - The sink the words of a text that is only counted are given to.
+     *   An external concordance spills its word table once it is full.
+     */
+    private WordTokenizer.Sink sink() {
+        if (sketch != null) {
+            return sketch;
+        } else if (runs == null) {
+            return wordTable;
+        }
+        return (chars, length, hash) -> {
+            wordTable.word(chars, length, hash);
+            if (wordTable.size() >= runs.getMaxWords()) {
+                try {
+                    spill();
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+        };
+    }
+    
+    /**
+     * Adds to the count of a word, spilling the word table of an external
+     *   concordance once it is full.
+     * @param word - The word
+     * @param count - The number to be added to its count
+     * @throws IOException if the word table can not be spilled
+     */
+    private void add(String word, int count) throws IOException {
+        wordTable.add(word.toCharArray(), 0, word.length(), word.hashCode(), count);
+        if (runs != null && wordTable.size() >= runs.getMaxWords()) {
+            spill();
+        }
+    }
+    
+    /**
+     * Writes the words of the word table to a new run and empties the table, 
+     *   along with the entries, sets and index built from it.
+     * @throws IOException if the run can not be written
+     */
+    private void spill() throws IOException {
+        Path run = runs.create();
+        runs.add(run, write(run, true), ignoreCase);
+        wordTable.clear();
+        entries.clear();
+        alphaSet.clear();
+        freqSet.clear();
+        index = null;
+    }
+    
+    /**
+     * Spills what is left in the word table of an external concordance and
+     *   merges every run into one.
+     * @return - The merged run
+     * @throws UncheckedIOException if a run can not be written or read
+     */
+    private WordFile compact() {
+        try {
+            if (wordTable.size() > 0) {
+                spill();
+            }
+            return runs.compact(ignoreCase);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+    
+    /**
+     * @return - Whether an external concordance has spilled any words
+     */
+    private boolean isSpilled() {
+        return runs != null && !runs.isEmpty();
+    }
+    
+    /**
+     * Brings the word index up to date, building it the first time it is needed.
+     * @return - The index
+     */
+    private WordIndex index() {
+        loadWords();
+        updateEntries();
+        if (index == null) {
+            index = new WordIndex(entries);
+        }
+        if (!index.isUpToDate()) {
+            long start = metrics.start();
+            Object event = Metrics.EVENTS.beginSort();
+            index.update();
+            metrics.sorted(start);
+            Metrics.EVENTS.endSort(event, "INDEX", entries.size());
+        }
+        return index;
+    }
+    
+    /**
+     * Finds where a bound of wordsBetween falls in the word index.
+     * @param words - The index
+     * @param word - The bound
+     * @return - The number of words in the index that sort before the bound
+     */
+    private int rank(WordIndex words, String word) {
+        String bound = ignoreCase ? word.toLowerCase(locale) : word;
+        int rank = words.rank(bound);
+        return (rank >= 0) ? rank : words.rank(collator.getCollationKey(bound));
+    }
+    
+    /**
+     * Fails for an approximate concordance, which only keeps its most frequent words.
+     */
+    private void checkExact() {
+        if (sketch != null) {
+            throw new IllegalStateException("An approximate concordance only keeps its most frequent words.");
+        }
+    }
+    
+    /**
+     * @return - Whether the concordance holds no words
+     */
+    private boolean isEmpty() {
+        return (wordFile != null) ? wordFile.size() == 0 : wordTable.size() == 0 && !isSpilled();
+    }
+    
+    /**
+     * Copies the words of a loaded file into the word table, once something needs
+     *   them there.
+     */
+    private void loadWords() {
+        if (wordFile != null) {
+            WordFile words = wordFile;
+            wordFile = null;
+            for (WordFile.Cursor cursor = words.cursor(0); cursor.next(); ) {
+                String word = cursor.word();
+                wordTable.add(word.toCharArray(), 0, word.length(), word.hashCode(), cursor.count());
+            }
+        }
+    }
+    
+    /**
+     * Moves the last value of a min heap up to its place.
+     * @param heap - The heap
+     * @param index - The index of the value to be moved
+     */
+    private static void siftUp(int[] heap, int index) {
+        int value = heap[index];
+        while (index > 0 && heap[(index - 1) / 2] > value) {
+            heap[index] = heap[(index - 1) / 2];
+            index = (index - 1) / 2;
+        }
+        heap[index] = value;
+    }
+    
+    /**
+     * Moves the first value of a min heap down to its place.
+     * @param heap - The heap
+     * @param size - The number of values in the heap
+     */
+    private static void siftDown(int[] heap, int size) {
+        int value = heap[0];
+        int index = 0;
+        int child;
+        while ((child = 2 * index + 1) < size) {
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= value) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = value;
+    }
+    
+    /**
+     * Brings the entry of every word, and the sorted sets built from them, up to
+     *   date with the word table. Only the words added or changed since the last
+     *   update are visited.
+     */
+    private void updateEntries() {
+        wordTable.trackChanges();
+        
+        for (int i = 0; i < wordTable.changeCount(); i++) {
+            int id = wordTable.change(i);
+            if (id < entries.size()) {
+                WordEntry old = entries.get(id);
+                WordEntry entry = old.withCount(wordTable.count(id));
+                entries.set(id, entry);
+                replace(alphaSet, old, entry);
+                replace(freqSet, old, entry);
+            }
+        }
+        wordTable.clearChanges();
+        
+        int first = entries.size();
+        if (first == wordTable.size()) {
+            return;
+        }
+        long start = metrics.start();
+        WordEntry[] added = entries(wordTable.size() - first, i -> wordTable.word(first + i), i -> wordTable.count(first + i));
+        metrics.counted(start);
+        for (WordEntry entry : added) {
+            entries.add(entry);
+            replace(alphaSet, null, entry);
+            replace(freqSet, null, entry);
+        }
+    }
+    
+    /**
+     * Makes the entries of words, giving them their collation keys on several
+     *   threads when there are many.
+     * @param size - The number of words
+     * @param word - The word at an index
+     * @param count - The count of the word at an index
+     * @return - The entries, in the order of the words
+     */
+    private WordEntry[] entries(int size, IntFunction<String> word, IntUnaryOperator count) {
+        WordEntry[] result = new WordEntry[size];
+        int chunks = Math.min(ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_THREAD, size / MIN_PARALLEL_WORDS + 1);
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            Collator local = (Collator) collator.clone();
+            for (int i = chunk; i < size; i += chunks) {
+                result[i] = new WordEntry(local.getCollationKey(word.apply(i)), count.applyAsInt(i));
+            }
+        });
+        return result;
+    }
+    
+    /**
+     * Sorts entries for building a set from them in linear time. Entries the 
+     *   comparator finds equal are dropped after the first, as adding them to the 
+     *   set one by one would.
+     * @param entries - The entries to be sorted
+     * @param comparator - The comparator of the set
+     * @return - A sorted set of the entries, only meant to be added to a TreeSet
+     */
+    static SortedSet<Entry<String, Integer>> sort(List<WordEntry> entries, Comparator<? super Entry<String, Integer>> comparator) {
+        WordEntry[] sorted = entries.toArray(new WordEntry[entries.size()]);
+        Arrays.parallelSort(sorted, comparator);
+        
+        int size = Math.min(1, sorted.length);
+        for (int i = 1; i < sorted.length; i++) {
+            if (comparator.compare(sorted[size - 1], sorted[i]) != 0) {
+                sorted[size++] = sorted[i];
+            }
+        }
+        return new SortedEntries(Arrays.asList(sorted).subList(0, size), comparator);
+    }
+    
+    /**
+     * Replaces the entry of a word in a sorted set that has already been built.
+     * @param set - The set to be updated, left as is if it is empty
+     * @param old - The previous entry of the word, or null if the word is new
+     * @param entry - The current entry of the word
+     */
+    private static void replace(TreeSet<Entry<String, Integer>> set, WordEntry old, WordEntry entry) {
+        if (!set.isEmpty()) {
+            if (old != null && set.floor(old) == old) {
+                set.remove(old);
+            }
+            set.add(entry);
+        }
+    }
+    
+    /**
+     * Splits a file into byte ranges for readFile. Every range after the first 
+     *   begins on a non alphabetic code point so that no word spans two ranges.
+     * @param channel - The file to be split
+     * @param threads - The number of threads the ranges are shared between
+     * @return - The offsets of the ranges, where range i is [bounds[i], bounds[i + 1])
+     * @throws IOException 
+     */
+    private static long[] splitFile(FileChannel channel, int threads) throws IOException {
+        long size = channel.size();
+        long chunk = Math.min(MAX_CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE, size / ((long) threads * CHUNKS_PER_THREAD)));
+        
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        long last = 0;
+        while (size - last > chunk) {
+            long bound = findBoundary(channel, last + chunk, size);
+            if (bound >= size) {
+                break;
+            }
+            bounds.add(bound);
+            last = bound;
+        }
+        bounds.add(size);
+        
+        return bounds.stream().mapToLong(Long::longValue).toArray();
+    }
+    
+    /**
+     * Finds the first code point at or after a position that is not alphabetic.
+     * @param channel - The file to be searched
+     * @param position - The byte offset the search starts from
+     * @param size - The size of the file
+     * @return - The offset of the non alphabetic code point, or size if there is none
+     * @throws IOException 
+     */
+    private static long findBoundary(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(4096);
+        
+        while (position < size) {
+            window.clear();
+            channel.read(window, position);
+            window.flip();
+            
+            int i = 0;
+            while (i < window.limit()) {
+                int b = window.get(i) & 0xFF;
+                if ((b & 0xC0) == 0x80) {
+                    i++;
+                    continue;
+                }
+                int length = WordTokenizer.sequenceLength(b);
+                if (length < 0) {
+                    return position + i;
+                } else if (i + length > window.limit()) {
+                    if (position + i + length > size) {
+                        return size;
+                    }
+                    break;
+                }
+                int cp = WordTokenizer.decode(window, i, length);
+                if (cp < 0 || !Letters.isLetter(cp)) {
+                    return position + i;
+                }
+                i += length;
+            }
+            position += Math.max(i, 1);
+        }
+        return size;
+    }
+    
+    /**
+     * A sorted list of entries presented as a SortedSet, which lets a TreeSet take
+     *   them in linear time. Only the methods TreeSet.addAll uses are supported.
+     */
+    private static final class SortedEntries extends AbstractSet<Entry<String, Integer>> implements SortedSet<Entry<String, Integer>> {
+        
+        private final List<WordEntry> sorted;
+        private final Comparator<? super Entry<String, Integer>> comparator;
+        
+        SortedEntries(List<WordEntry> sorted, Comparator<? super Entry<String, Integer>> comparator) {
+            this.sorted = sorted;
+            this.comparator = comparator;
+        }
+        
+        @Override
+        public Iterator<Entry<String, Integer>> iterator() {
+            return Collections.<Entry<String, Integer>>unmodifiableList(sorted).iterator();
+        }
+        
+        @Override
+        public int size() {
+            return sorted.size();
+        }
+        
+        @Override
+        public Comparator<? super Entry<String, Integer>> comparator() {
+            return comparator;
+        }
+        
+        @Override
+        public Entry<String, Integer> first() {
+            return sorted.get(0);
+        }
+        
+        @Override
+        public Entry<String, Integer> last() {
+            return sorted.get(sorted.size() - 1);
+        }
+        
+        @Override
+        public SortedSet<Entry<String, Integer>> subSet(Entry<String, Integer> fromElement, Entry<String, Integer> toElement) {
+            throw new UnsupportedOperationException();
+        }
+        
+        @Override
+        public SortedSet<Entry<String, Integer>> headSet(Entry<String, Integer> toElement) {
+            throw new UnsupportedOperationException();
+        }
+        
+        @Override
+        public SortedSet<Entry<String, Integer>> tailSet(Entry<String, Integer> fromElement) {
+            throw new UnsupportedOperationException();
+        }
+    }
+    
+    /**
+     * A text being read in pieces, opened with openFeed. A feed is not thread safe
+     *   and belongs to the concordance that opened it.
+     */
+    public final class Feed {
+        
+        private final WordTokenizer tokenizer;
+        private final boolean ignoreCase;
+        private final Object event = Metrics.EVENTS.beginRead();
+        private char[] buffer;
+        private boolean finished = false;
+        private CharsetDecoder decoder;
+        private CharBuffer decoded;
+        private ByteBuffer carry;
+        
+        private Feed(WordTokenizer tokenizer, boolean ignoreCase) {
+            this.tokenizer = tokenizer;
+            this.ignoreCase = ignoreCase;
+        }
+        
+        /**
+         * Reads the next piece of a UTF-8 encoded text. The remaining bytes of the
+         *   buffer are consumed, leaving its position at its limit.
+         * @param bytes - The next bytes of the text
+         */
+        public void feed(ByteBuffer bytes) {
+            checkOpen();
+            long start = metrics.start();
+            scan(bytes);
+            metrics.tokenized(start);
+        }
+        
+        /**
+         * Reads the next piece of a text.
+         * @param text - The next characters of the text
+         */
+        public void feed(CharSequence text) {
+            checkOpen();
+            long start = metrics.start();
+            endBytes();
+            scan(text);
+            metrics.tokenized(start);
+        }
+        
+        /**
+         * Ends the text, counting its last word. The feed can not be used after.
+         */
+        public void finish() {
+            checkOpen();
+            long start = metrics.start();
+            endBytes();
+            tokenizer.finish();
+            finished = true;
+            finished(tokenizer, "openFeed", ignoreCase, start, event);
+        }
+        
+        /**
+         * Scans the bytes of a piece, decoding them first for a positional feed.
+         * @param bytes - The next bytes of the text
+         */
+        private void scan(ByteBuffer bytes) {
+            if (postings == null) {
+                tokenizer.scan(bytes);
+                return;
+            }
+            
+            if (decoder == null) {
+                decoder = StandardCharsets.UTF_8.newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+                decoded = CharBuffer.allocate(BUFFER_SIZE);
+                carry = ByteBuffer.allocate(8);
+            }
+            while (carry.position() != 0 && bytes.hasRemaining()) {
+                carry.put(bytes.get());
+                carry.flip();
+                decode(carry, false);
+                carry.compact();
+            }
+            if (carry.position() == 0) {
+                decode(bytes, false);
+                carry.put(bytes);
+            }
+        }
+        
+        /**
+         * Scans the chars of a piece.
+         * @param text - The next characters of the text
+         */
+        private void scan(CharSequence text) {
+            if (text instanceof CharBuffer && ((CharBuffer) text).hasArray()) {
+                CharBuffer chars = (CharBuffer) text;
+                tokenizer.scan(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining());
+                return;
+            }
+            
+            if (buffer == null) {
+                buffer = new char[BUFFER_SIZE];
+            }
+            for (int start = 0; start < text.length(); start += buffer.length) {
+                int end = Math.min(text.length(), start + buffer.length);
+                if (text instanceof String) {
+                    ((String) text).getChars(start, end, buffer, 0);
+                } else {
+                    for (int i = start; i < end; i++) {
+                        buffer[i - start] = text.charAt(i);
+                    }
+                }
+                tokenizer.scan(buffer, 0, end - start);
+            }
+        }
+        
+        /**
+         * Decodes bytes for a positional feed, so offsets are counted in chars.
+         * @param bytes - The bytes to be decoded, of which up to three may be left
+         *   over at the end of an incomplete sequence
+         * @param endOfInput - Whether no more bytes follow
+         */
+        private void decode(ByteBuffer bytes, boolean endOfInput) {
+            CoderResult result;
+            do {
+                result = decoder.decode(bytes, decoded, endOfInput);
+                tokenizer.scan(decoded.array(), 0, decoded.position());
+                decoded.clear();
+            } while (result.isOverflow());
+        }
+        
+        /**
+         * Ends the bytes given to a positional feed, before chars or the end of
+         *   the text. An incomplete sequence left over is malformed.
+         */
+        private void endBytes() {
+            if (decoder != null) {
+                carry.flip();
+                decode(carry, true);
+                decoder.flush(decoded);
+                tokenizer.scan(decoded.array(), 0, decoded.position());
+                decoded.clear();
+                carry.clear();
+                decoder.reset();
+            }
+        }
+        
+        private void checkOpen() {
+            if (finished) {
+                throw new IllegalStateException("The feed has already been finished.");
+            }
+        }
+    }
+    
+    /**
+     * The MBean registered by registerMBean, reading every attribute from a new
+     *   snapshot.
+     */
+    private final class Management implements ConcordanceMXBean {
+        
+        @Override
+        public long getBytes() {
+            return getStats().getBytes();
+        }
+        
+        @Override
+        public long getChars() {
+            return getStats().getChars();
+        }
+        
+        @Override
+        public long getCodePoints() {
+            return getStats().getCodePoints();
+        }
+        
+        @Override
+        public long getTokens() {
+            return getStats().getTokens();
+        }
+        
+        @Override
+        public long getDistinctWords() {
+            return getStats().getDistinctWords();
+        }
+        
+        @Override
+        public long getResizes() {
+            return getStats().getResizes();
+        }
+        
+        @Override
+        public long getTokenizeNanos() {
+            return getStats().getTokenizeNanos();
+        }
+        
+        @Override
+        public long getCountNanos() {
+            return getStats().getCountNanos();
+        }
+        
+        @Override
+        public long getSortNanos() {
+            return getStats().getSortNanos();
+        }
+        
+        @Override
+        public boolean isStatsEnabled() {
+            return Concordance.this.isStatsEnabled();
+        }
+        
+        @Override
+        public void setStatsEnabled(boolean enabled) {
+            Concordance.this.setStatsEnabled(enabled);
+        }
+    }
+    
+    /**
+     * An occurrence of a word, found with getOccurrences.
+     */
+    public static final class Occurrence {
+        
+        private final int text;
+        private final long offset;
+        
+        Occurrence(int text, long offset) {
+            this.text = text;
+            this.offset = offset;
+        }
+        
+        /**
+         * @return - The number of the text the word occurs in. Texts are numbered
+         *   from 0 in the order they were begun by readText, readFile or openFeed.
+         */
+        public int getText() {
+            return text;
+        }
+        
+        /**
+         * @return - The offset of the first char of the word from the start of its text
+         */
+        public long getOffset() {
+            return offset;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Occurrence && ((Occurrence) o).text == text && ((Occurrence) o).offset == offset;
+        }
+        
+        @Override
+        public int hashCode() {
+            return 31 * text + Long.hashCode(offset);
+        }
+        
+        @Override
+        public String toString() {
+            return text + ":" + offset;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,96 @@
+//*******************************************************************
+//Author: Spencer E Reeves
+//Last Modified: 10-17-2026
+//
+//Purpose:
+//  The flight recorder events of a concordance, recorded under the Concordance
+//  category when a recording enables com.pkc.Read and com.pkc.Sort. This is the
+//  only class that needs jdk.jfr, and Metrics only loads it when the JVM has it,
+//  so the library still runs on a Java 8 runtime without the flight recorder.
+//*******************************************************************
+package com.pkc;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+final class ConcordanceEvents implements Metrics.Events {
+
+    @Name("com.pkc.Read")
+    @Label("Read Text")
+    @Category("Concordance")
+    @Description("A text read into a concordance")
+    static final class ReadEvent extends Event {
+
+        @Label("Source")
+        String source;
+
+        @Label("Ignore Case")
+        boolean ignoreCase;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+
+        @Label("Chars")
+        long chars;
+
+        @Label("Tokens")
+        long tokens;
+    }
+
+    @Name("com.pkc.Sort")
+    @Label("Sort Words")
+    @Category("Concordance")
+    @Description("The words of a concordance sorted into a set or index")
+    static final class SortEvent extends Event {
+
+        @Label("Order")
+        String order;
+
+        @Label("Words")
+        int words;
+    }
+
+    @Override
+    public Object beginRead() {
+        ReadEvent event = new ReadEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void endRead(Object event, String source, boolean ignoreCase, long bytes, long chars, long tokens) {
+        ReadEvent read = (ReadEvent) event;
+        read.end();
+        if (read.shouldCommit()) {
+            read.source = source;
+            read.ignoreCase = ignoreCase;
+            read.bytes = bytes;
+            read.chars = chars;
+            read.tokens = tokens;
+            read.commit();
+        }
+    }
+
+    @Override
+    public Object beginSort() {
+        SortEvent event = new SortEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void endSort(Object event, String order, int words) {
+        SortEvent sort = (SortEvent) event;
+        sort.end();
+        if (sort.shouldCommit()) {
+            sort.order = order;
+            sort.words = words;
+            sort.commit();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+//*******************************************************************
+//Author: Spencer E Reeves
+//Last Modified: 10-17-2026
+//
+//Purpose:
+//  The attributes a concordance registered with registerMBean shows over JMX.
+//  Each is read from a new ConcordanceStats snapshot.
+//*******************************************************************
+package com.pkc;
+
+public interface ConcordanceMXBean {
+
+    long getBytes();
+
+    long getChars();
+
+    long getCodePoints();
+
+    long getTokens();
+
+    long getDistinctWords();
+
+    long getResizes();
+
+    long getTokenizeNanos();
+
+    long getCountNanos();
+
+    long getSortNanos();
+
+    boolean isStatsEnabled();
+
+    void setStatsEnabled(boolean enabled);
+}
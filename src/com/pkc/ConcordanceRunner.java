@@ -1,57 +1,365 @@
 //*******************************************************************
 //Author: Spencer E Reeves
-//Last Modified: 08-07-2017
+//Last Modified: 10-17-2026
 //
-//Purpose: 
-//  A simple demonstration of how to use the Concordance library.
+//Purpose:
+//  A batch tool that builds one concordance from any number of UTF-8 files and
+//  writes its words, with their frequencies, as TSV, CSV or JSON lines.
+//
+//  java com.pkc.ConcordanceRunner [options] path...
+//    A path is a file, a directory whose files are all read, or a glob such as
+//    'texts/**/*.txt'.
+//    --sort alphabetic|frequency  The order of the words, alphabetic by default
+//    --reversed                   Reverses the order
+//    --top k                      Writes only the first k words of the order
+//    --format tsv|csv|jsonl       The format of the output, tsv by default
+//    --output file                Writes to a file instead of standard output
+//    --threads n                  The number of files read at once, one per core
+//                                   by default
+//    --locale tag                 The locale of the words, such as tr or en-US
+//    --keep-case                  Counts words without ignoring case
+//
+//Design Decisions:
+//  Parallel reading - A fixed pool of threads takes files from a shared queue,
+//    largest first so one large file left for last does not hold up the batch.
+//    Each thread counts into a concordance of its own, and those are merged once
+//    every file has been read, so no words are shared while reading. A batch of
+//    a single file is split across the threads by readFile instead.
+//  Streamed output - The entries are written one at a time to a buffered writer
+//    straight from the sorted set, or from topK and bottomK when only the most or
+//    least frequent words are wanted, so the output never builds a String of the
+//    whole result. A word only holds letters, so no format needs to quote it.
+//  Failed files - A file, directory or glob that can not be read is logged and
+//    skipped, and the tool exits with status 1 once the rest of the batch has
+//    been written.
 //*******************************************************************
 
 package com.pkc;
 
-import java.io.File;
-import java.io.FileInputStream;
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.Reader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map.Entry;
-import java.util.SortedSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class ConcordanceRunner {
-    
+
+    private static final Logger LOGGER = Logger.getLogger(ConcordanceRunner.class.getName());
+
     /**
-     * Sample runner for concordance library. 
-     * @param args Takes a single string -- path -- to a file to be parsed.
+     * The formats the words can be written in.
      */
-    public static void main(String[] args) {
+    enum Format {TSV, CSV, JSONL}
+
+    /**
+     * Batch runner for concordance library.
+     * @param args Takes the options and paths described above.
+     * @throws java.io.IOException
+     */
+    public static void main(String[] args) throws IOException {
         //Check arguments
-        if (args.length < 0) {
-            throw new IllegalArgumentException("One argument expected: file path.");
+        if (args.length == 0) {
+            throw new IllegalArgumentException("At least one argument expected: a file, directory or glob.");
+        }
+
+        int failed;
+        String output = option(args, "--output");
+        if (output == null) {
+            Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+            failed = run(args, out);
+            out.flush();
+        } else {
+            try (Writer out = Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8)) {
+                failed = run(args, out);
+            }
+        }
+        if (failed != 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Reads the files named by the arguments and writes their words.
+     * @param args - The options and paths, as given to main
+     * @param out - The writer the words are written to
+     * @return - The number of files that could not be read
+     * @throws IOException
+     */
+    static int run(String[] args, Writer out) throws IOException {
+        Concordance.Sort order = Concordance.Sort.ALPHABETIC;
+        Format format = Format.TSV;
+        Locale locale = Locale.getDefault();
+        boolean reversed = false;
+        boolean ignoreCase = true;
+        int top = -1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<String> paths = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--sort":
+                    order = Concordance.Sort.valueOf(value(args, i++).toUpperCase(Locale.ROOT));
+                    break;
+                case "--format":
+                    format = Format.valueOf(value(args, i++).toUpperCase(Locale.ROOT));
+                    break;
+                case "--locale":
+                    locale = Locale.forLanguageTag(value(args, i++));
+                    break;
+                case "--top":
+                    top = Integer.parseInt(value(args, i++));
+                    if (top < 0) {
+                        throw new IllegalArgumentException("The number of words can not be negative: " + top);
+                    }
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(value(args, i++));
+                    if (threads < 1) {
+                        throw new IllegalArgumentException("At least one thread is needed: " + threads);
+                    }
+                    break;
+                case "--output":
+                    value(args, i++);
+                    break;
+                case "--reversed":
+                    reversed = true;
+                    break;
+                case "--keep-case":
+                    ignoreCase = false;
+                    break;
+                default:
+                    if (args[i].startsWith("--")) {
+                        throw new IllegalArgumentException("Unknown option: " + args[i]);
+                    }
+                    paths.add(args[i]);
+            }
+        }
+        if (paths.isEmpty()) {
+            throw new IllegalArgumentException("At least one file, directory or glob expected.");
+        }
+
+        AtomicInteger failed = new AtomicInteger();
+        List<Path> files = files(paths, failed);
+        Concordance concordance = read(files, locale, ignoreCase, threads, failed);
+
+        Iterable<Entry<String, Integer>> words;
+        if (top >= 0 && order == Concordance.Sort.FREQUENCY) {
+            words = reversed ? concordance.bottomK(top) : concordance.topK(top);
+        } else {
+            words = concordance.getWords(order, reversed);
+        }
+        write(words, top < 0 ? Integer.MAX_VALUE : top, format, out);
+        return failed.get();
+    }
+
+    /**
+     * Expands paths into the regular files they name. A directory names every
+     *   file below it, and a path holding any of *?[{ is a glob matched against
+     *   the files below its longest directory without one.
+     *   A path that can not be walked is logged and skipped, along with any
+     *   files it listed before failing.
+     * @param paths - The files, directories and globs
+     * @param failed - Counts the paths that could not be walked
+     * @return - The files, each listed once
+     */
+    static List<Path> files(List<String> paths, AtomicInteger failed) {
+        Set<Path> files = new LinkedHashSet<>();
+        for (String path : paths) {
+            try {
+                files.addAll(walk(path));
+            } catch (IOException | UncheckedIOException ex) {
+                failed.incrementAndGet();
+                LOGGER.log(Level.SEVERE, "Could not read " + path, ex);
+            }
+        }
+        return new ArrayList<>(files);
+    }
+
+    /**
+     * Reads files into one concordance, on up to the given number of threads.
+     * @param files - The files to be read
+     * @param locale - The locale of the words
+     * @param ignoreCase - boolean for if the case should be ignored
+     * @param threads - The number of files to be read at once
+     * @param failed - Counts the files that could not be read
+     * @return - The concordance of every file that could be read
+     * @throws IOException
+     */
+    static Concordance read(List<Path> files, Locale locale, boolean ignoreCase, int threads, AtomicInteger failed) throws IOException {
+        if (files.size() == 1) {
+            Concordance concordance = new Concordance(locale);
+            read(concordance, files.get(0), ignoreCase, threads, failed);
+            return concordance;
+        }
+
+        Queue<Path> queue = new ConcurrentLinkedQueue<>(files.stream()
+                .sorted(Comparator.comparingLong(ConcordanceRunner::size).reversed())
+                .collect(Collectors.toList()));
+        int workers = Math.max(1, Math.min(threads, files.size()));
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<Concordance>> results = new ArrayList<>();
+            for (int i = 0; i < workers; i++) {
+                results.add(executor.submit(() -> {
+                    Concordance concordance = new Concordance(locale);
+                    Path file;
+                    while ((file = queue.poll()) != null) {
+                        read(concordance, file, ignoreCase, 1, failed);
+                    }
+                    return concordance;
+                }));
+            }
+
+            Concordance concordance = results.get(0).get();
+            for (int i = 1; i < workers; i++) {
+                concordance.merge(results.get(i).get());
+            }
+            return concordance;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading the files.", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new IOException(ex.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Writes entries, one per line.
+     * @param words - The entries in the order they are written
+     * @param limit - The number of entries to be written at most
+     * @param format - The format of the lines
+     * @param out - The writer the lines are written to
+     * @throws IOException
+     */
+    static void write(Iterable<Entry<String, Integer>> words, int limit, Format format, Writer out) throws IOException {
+        if (format == Format.TSV) {
+            out.write("word\tfrequency\n");
+        } else if (format == Format.CSV) {
+            out.write("word,frequency\n");
         }
 
-        //Create variables for parsing file
-        File file = new File(args[0]);
-        Reader reader;
-        Concordance concordance;
-        
+        int count = 0;
+        for (Entry<String, Integer> entry : words) {
+            if (count++ == limit) {
+                break;
+            }
+            switch (format) {
+                case TSV:
+                    out.write(entry.getKey());
+                    out.write('\t');
+                    out.write(Integer.toString(entry.getValue()));
+                    break;
+                case CSV:
+                    out.write(entry.getKey());
+                    out.write(',');
+                    out.write(Integer.toString(entry.getValue()));
+                    break;
+                default:
+                    out.write("{\"word\":\"");
+                    out.write(entry.getKey());
+                    out.write("\",\"frequency\":");
+                    out.write(Integer.toString(entry.getValue()));
+                    out.write('}');
+            }
+            out.write('\n');
+        }
+    }
+
+    private static void read(Concordance concordance, Path file, boolean ignoreCase, int threads, AtomicInteger failed) {
         try {
-            //Create reader for parsing
-            reader = new InputStreamReader(new FileInputStream(file), "UTF-8");
-            
-            //Instantiate, read, and sort file
-            concordance = new Concordance(Locale.getDefault());
-            concordance.readText(reader, true);
-            SortedSet<Entry<String, Integer>> set = concordance.getWords(Concordance.Sort.ALPHABETIC, false);
-            
-            //Do stuff
-            System.out.println(set.first());
-            System.out.println(set.last());
-            System.out.println(set);            
+            if (threads == 1) {
+                concordance.readFile(file, ignoreCase);
+            } else {
+                concordance.readFile(file, ignoreCase, threads);
+            }
         } catch (IOException ex) {
-            Logger.getLogger(ConcordanceRunner.class.getName()).log(Level.SEVERE, null, ex);
+            failed.incrementAndGet();
+            LOGGER.log(Level.SEVERE, "Could not read " + file, ex);
         }
     }
 
+    /**
+     * Expands one path into the regular files it names, as files does.
+     * @param path - A file, directory or glob
+     * @return - The files, sorted
+     * @throws IOException
+     */
+    private static List<Path> walk(String path) throws IOException {
+        int glob = indexOfGlob(path);
+        if (glob < 0) {
+            try (Stream<Path> walk = Files.walk(Paths.get(path))) {
+                return walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+            }
+        }
+
+        String base = path.substring(0, Math.max(path.lastIndexOf('/', glob), path.lastIndexOf('\\', glob)) + 1);
+        Path directory = Paths.get(base.isEmpty() ? "." : base);
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + path.substring(base.length()));
+        try (Stream<Path> walk = Files.walk(directory)) {
+            return walk.filter(file -> Files.isRegularFile(file) && matcher.matches(directory.relativize(file)))
+                    .sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException ex) {
+            return 0;
+        }
+    }
+
+    private static int indexOfGlob(String path) {
+        for (int i = 0; i < path.length(); i++) {
+            if ("*?[{".indexOf(path.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String value(String[] args, int i) {
+        if (i + 1 == args.length) {
+            throw new IllegalArgumentException("A value expected after " + args[i]);
+        }
+        return args[i + 1];
+    }
+
+    private static String option(String[] args, String name) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(name)) {
+                return args[i + 1];
+            }
+        }
+        return null;
+    }
 }
@@ -0,0 +1,110 @@
+//*******************************************************************
+//Author: Spencer E Reeves
+//Last Modified: 10-17-2026
+//
+//Purpose:
+//  A snapshot of the work a concordance has done, returned by getStats. Counters
+//  are always kept. The timers are only kept while timing is turned on with
+//  setStatsEnabled, and stay at 0 otherwise.
+//*******************************************************************
+package com.pkc;
+
+public final class ConcordanceStats {
+
+    private final long bytes;
+    private final long chars;
+    private final long codePoints;
+    private final long tokens;
+    private final long distinctWords;
+    private final long resizes;
+    private final long tokenizeNanos;
+    private final long countNanos;
+    private final long sortNanos;
+
+    ConcordanceStats(long bytes, long chars, long codePoints, long tokens, long distinctWords, long resizes,
+            long tokenizeNanos, long countNanos, long sortNanos) {
+        this.bytes = bytes;
+        this.chars = chars;
+        this.codePoints = codePoints;
+        this.tokens = tokens;
+        this.distinctWords = distinctWords;
+        this.resizes = resizes;
+        this.tokenizeNanos = tokenizeNanos;
+        this.countNanos = countNanos;
+        this.sortNanos = sortNanos;
+    }
+
+    /**
+     * @return - The number of UTF-8 bytes scanned by readFile and by feeds given bytes
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return - The number of chars scanned by readText and by feeds given chars
+     */
+    public long getChars() {
+        return chars;
+    }
+
+    /**
+     * @return - The number of code points scanned from bytes and chars, where a
+     *   malformed byte counts as one
+     */
+    public long getCodePoints() {
+        return codePoints;
+    }
+
+    /**
+     * @return - The number of words read, counting every occurrence
+     */
+    public long getTokens() {
+        return tokens;
+    }
+
+    /**
+     * @return - The number of distinct words held in memory, or in the file of a
+     *   loaded concordance
+     */
+    public long getDistinctWords() {
+        return distinctWords;
+    }
+
+    /**
+     * @return - The number of times a word table grew its slots
+     */
+    public long getResizes() {
+        return resizes;
+    }
+
+    /**
+     * @return - The nanoseconds spent splitting texts into words. A word is
+     *   counted as soon as it is found, so this includes counting it.
+     */
+    public long getTokenizeNanos() {
+        return tokenizeNanos;
+    }
+
+    /**
+     * @return - The nanoseconds spent folding the tables of several threads or
+     *   concordances together, and giving new words their collation keys
+     */
+    public long getCountNanos() {
+        return countNanos;
+    }
+
+    /**
+     * @return - The nanoseconds spent sorting the words into sets and into the word index
+     */
+    public long getSortNanos() {
+        return sortNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "bytes=" + bytes + ", chars=" + chars + ", codePoints=" + codePoints + ", tokens=" + tokens
+                + ", distinctWords=" + distinctWords + ", resizes=" + resizes + ", tokenizeNanos=" + tokenizeNanos
+                + ", countNanos=" + countNanos + ", sortNanos=" + sortNanos;
+    }
+}
@@ -0,0 +1,275 @@
+//*******************************************************************
+//Author: Spencer E Reeves
+//Last Modified: 10-17-2026
+//
+//Purpose:
+//  A concordance that many threads can read texts into at the same time.
+//
+//Design Decisions:
+//  Per document tables - Each call to readText counts its text into a WordTable
+//    of its own, so tokenizing never contends. The finished table is then folded
+//    into a ConcurrentHashMap of LongAdders, which only contends on words that
+//    several threads add at the same moment.
+//  Consistent snapshots - Folding a document holds the read half of a read write
+//    lock and taking a snapshot holds the write half. Any number of documents are
+//    folded at once, and a snapshot always holds whole documents. The write half
+//    is only held while the counts are copied. Collation keys are built after it
+//    is released and cached on the word, so a word's key is built once.
+//  Ignore case - Whether case is ignored is fixed when the concordance is created,
+//    since threads reading with different settings would otherwise race on it.
+//*******************************************************************
+package com.pkc;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map.Entry;
+import java.util.NavigableSet;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class ConcurrentConcordance {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final long MAX_MAP_SIZE = 1L << 30;
+
+    private final Locale locale;
+    private final Collator collator;
+    private final boolean ignoreCase;
+
+    private final Comparator<Entry<String, Integer>> BY_ALPHABETIC;
+    private final Comparator<Entry<String, Integer>> BY_FREQUENCY;
+
+    private final ConcurrentHashMap<String, WordCount> wordMap = new ConcurrentHashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final AtomicLong version = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    /**
+     * The count of a word, along with its collation key once a snapshot needed it.
+     *   Two snapshots may build the key at once, which only wastes the work.
+     */
+    private static final class WordCount {
+        private final LongAdder count = new LongAdder();
+        private volatile CollationKey collationKey;
+    }
+
+    /**
+     * The entries of every word at one point in time, and the sets sorted from
+     *   them so far.
+     */
+    private static final class Snapshot {
+        private final long version;
+        private final List<WordEntry> entries;
+        private final NavigableSet<Entry<String, Integer>>[] sets = newSets();
+
+        Snapshot(long version, List<WordEntry> entries) {
+            this.version = version;
+            this.entries = entries;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private static NavigableSet<Entry<String, Integer>>[] newSets() {
+            return new NavigableSet[2];
+        }
+
+        /**
+         * Sorts the entries, once per ordering.
+         * @param index - The slot the ordering is kept in
+         * @param comparator - The ordering
+         * @return - An unmodifiable set of the entries
+         */
+        synchronized NavigableSet<Entry<String, Integer>> sorted(int index, Comparator<Entry<String, Integer>> comparator) {
+            if (sets[index] == null) {
+                TreeSet<Entry<String, Integer>> set = new TreeSet<>(comparator);
+                set.addAll(Concordance.sort(entries, comparator));
+                sets[index] = Collections.unmodifiableNavigableSet(set);
+            }
+            return sets[index];
+        }
+    }
+
+    /**
+     * Instantiates a new concurrent concordance instance.
+     * @param locale - The local sorting to be used when reading a text.
+     * @param ignoreCase - boolean for if the case should be ignored
+     */
+    public ConcurrentConcordance(Locale locale, boolean ignoreCase) {
+        this.locale = locale;
+        this.collator = Collator.getInstance(locale);
+        this.ignoreCase = ignoreCase;
+
+        BY_ALPHABETIC = (o1, o2) -> {return WordEntry.compare(collator, o1, o2);};
+        BY_FREQUENCY = (o1, o2) -> {
+            int comp = o2.getValue().compareTo(o1.getValue());
+            return (comp == 0) ? WordEntry.compare(collator, o1, o2) : comp;};
+    }
+
+    /**
+     * Clears the words from the map if there are any. Waits for the texts being
+     *   read to be added first.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            wordMap.clear();
+            version.incrementAndGet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Used to get the frequency of a specific word in the map.
+     * @param word - The string to be searched for in the map
+     * @return - Returns the frequency of the word.  0 if the word is not in the map
+     */
+    public int getWordFrequency(String word) {
+        WordCount count = wordMap.get(ignoreCase ? word.toLowerCase(locale) : word);
+        return count == null ? 0 : count.count.intValue();
+    }
+
+    /**
+     * Reads a text and maps the words to the number of times each occurs. This
+     *   can be called by many threads at once. The words of the text are counted
+     *   privately and only become visible to getWords once the whole text is read.
+     * @param input - Reader to be used for reading the unicode text
+     * @throws IOException
+     */
+    public void readText(Reader input) throws IOException {
+        WordTable words = new WordTable();
+
+        try (Reader reader = input) {
+            char[] buffer = new char[BUFFER_SIZE];
+            WordTokenizer tokenizer = new WordTokenizer(locale, ignoreCase, words);
+
+            int count;
+            while ((count = reader.read(buffer)) != -1) {
+                tokenizer.scan(buffer, 0, count);
+            }
+            tokenizer.finish();
+        }
+
+        add(words);
+    }
+
+    /**
+     * Reads a UTF-8 encoded file and maps the words to the number of times each
+     *   occurs. This can be called by many threads at once.
+     * @param file - Path of the UTF-8 encoded file to be read
+     * @throws IOException
+     */
+    public void readFile(Path file) throws IOException {
+        WordTable words = new WordTable();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WordTokenizer tokenizer = new WordTokenizer(locale, ignoreCase, words);
+
+            long size = channel.size();
+            for (long position = 0; position < size; position += MAX_MAP_SIZE) {
+                tokenizer.scan(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAX_MAP_SIZE, size - position)));
+            }
+            tokenizer.finish();
+        }
+
+        add(words);
+    }
+
+    /**
+     * Sorts a snapshot of the words. The snapshot holds every text whose reading
+     *   finished before this call, and no part of the texts still being read.
+     *   Reading is only paused while the counts are copied, not while they are
+     *   sorted, and a snapshot is reused until more text has been added.
+     * @param order - The sorting method to be used.
+     * @param reversed - Whether or not to reverse the set of words.
+     * @return - An unmodifiable set of the words ordered defined by the parameters
+     */
+    public SortedSet<Entry<String, Integer>> getWords(Concordance.Sort order, boolean reversed) {
+        Snapshot current;
+        long copied;
+        List<String> words = new ArrayList<>();
+        List<WordCount> counted = new ArrayList<>();
+        int[] counts;
+
+        lock.writeLock().lock();
+        try {
+            current = snapshot;
+            copied = version.get();
+            if (current == null || current.version != copied) {
+                current = null;
+                counts = new int[wordMap.size()];
+                wordMap.forEach((word, count) -> {
+                    counts[words.size()] = count.count.intValue();
+                    words.add(word);
+                    counted.add(count);
+                });
+            } else {
+                counts = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (current == null) {
+            List<WordEntry> entries = new ArrayList<>(words.size());
+            for (int i = 0; i < words.size(); i++) {
+                WordCount count = counted.get(i);
+                CollationKey key = count.collationKey;
+                if (key == null) {
+                    key = collator.getCollationKey(words.get(i));
+                    count.collationKey = key;
+                }
+                entries.add(new WordEntry(key, counts[i]));
+            }
+            current = publish(new Snapshot(copied, entries));
+        }
+
+        NavigableSet<Entry<String, Integer>> set = order.equals(Concordance.Sort.ALPHABETIC)
+                ? current.sorted(0, BY_ALPHABETIC) : current.sorted(1, BY_FREQUENCY);
+        return reversed ? set.descendingSet() : set;
+    }
+
+    /**
+     * Keeps a snapshot for later calls to getWords, unless one of a later version
+     *   was kept while it was being built.
+     * @param built - The snapshot that was built
+     * @return - The snapshot kept
+     */
+    private synchronized Snapshot publish(Snapshot built) {
+        if (snapshot == null || snapshot.version < built.version) {
+            snapshot = built;
+        }
+        return snapshot.version == built.version ? snapshot : built;
+    }
+
+    /**
+     * Adds the words counted from one text to the shared map.
+     * @param words - The words of the text
+     */
+    private void add(WordTable words) {
+        lock.readLock().lock();
+        try {
+            for (int id = 0; id < words.size(); id++) {
+                wordMap.computeIfAbsent(words.word(id), word -> new WordCount()).count.add(words.count(id));
+            }
+            version.incrementAndGet();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
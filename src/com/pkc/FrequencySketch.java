@@ -0,0 +1,311 @@
+//*******************************************************************
+//Author: Spencer E Reeves
+//Last Modified: 10-17-2026
+//
+//Purpose:
+//  Estimates the frequency of every word in a fixed amount of memory, and keeps
+//  the most frequent words. Used by an approximate concordance in place of a
+//  WordTable, for texts whose vocabulary would not fit in the heap.
+//
+//Design Decisions:
+//  Count-Min - Every word adds to one counter in each of several rows, picked by
+//    independent hashes of its chars. A counter can only be pushed up by other
+//    words, so the smallest of a word's counters is never below its frequency. With
+//    a width of e / epsilon and a depth of ln(1 / delta), the estimate exceeds the
+//    frequency by more than epsilon times the number of words counted with a
+//    probability of at most delta.
+//  Conservative update - Only the counters that hold the smallest value are raised,
+//    since raising the others would not change the estimate. The bound above still
+//    holds, and in practice the estimates are much closer.
+//  Heavy hitters - A table of a fixed number of words keeps the words with the
+//    highest estimates, as Space-Saving does: once the table is full, a word takes
+//    the place of the word with the smallest count. A word is only looked up in
+//    the table when its estimate is above that smallest count, so the long tail
+//    of rare words costs nothing but the sketch.
+//  Hashing - The chars are hashed once into 64 bits rather than with
+//    String.hashCode, which is too short to keep words that collide on it from
+//    colliding in every row. Each row multiplies that hash by its own odd number
+//    and keeps the top bits, so two words that share a counter in one row are no
+//    more likely than any other two to share one in the next.
+//*******************************************************************
+package com.pkc;
+
+import java.util.Arrays;
+
+final class FrequencySketch implements WordTokenizer.Sink {
+
+    private final int depth;
+    private final int width;
+    private final int shift;
+    private final long[] seeds;
+    private final long[] counters;
+    private long total;
+
+    private final int capacity;
+    private final char[][] words;
+    private final long[] counts;
+    private final int[] heap;
+    private final int[] heapIndex;
+    private final int[] table;
+    private int size;
+
+    /**
+     * Instantiates an empty sketch.
+     * @param capacity - The number of most frequent words kept
+     * @param epsilon - The error of an estimate, as a share of the number of words counted
+     * @param delta - The probability of an estimate exceeding that error
+     */
+    FrequencySketch(int capacity, double epsilon, double delta) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("At least one word must be kept: " + capacity);
+        } else if (!(epsilon > 0 && epsilon < 1) || !(delta > 0 && delta < 1)) {
+            throw new IllegalArgumentException("The error and its probability must be between 0 and 1: " + epsilon + ", " + delta);
+        }
+
+        this.width = Integer.highestOneBit((int) Math.min(1 << 30, Math.ceil(Math.E / epsilon)) - 1) << 1;
+        this.depth = (int) Math.ceil(Math.log(1 / delta));
+        if ((long) width * depth > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("The sketch for an error of " + epsilon + " and a probability of " + delta + " is too large.");
+        }
+        this.shift = Long.numberOfLeadingZeros(width) + 1;
+        this.seeds = new long[depth];
+        long seed = 0;
+        for (int row = 0; row < depth; row++) {
+            seed += 0x9E3779B97F4A7C15L;
+            seeds[row] = mix(seed) | 1;
+        }
+        this.counters = new long[width * depth];
+
+        this.capacity = capacity;
+        this.words = new char[capacity][];
+        this.counts = new long[capacity];
+        this.heap = new int[capacity];
+        this.heapIndex = new int[capacity];
+        this.table = new int[Integer.highestOneBit(capacity * 2 - 1) << 1];
+    }
+
+    /**
+     * Counts one occurrence of a word found by a tokenizer.
+     * @param chars - Buffer holding the word, starting at index 0
+     * @param length - The number of chars in the word
+     * @param hash - The hash of the word, equal to String.hashCode()
+     */
+    @Override
+    public void word(char[] chars, int length, int hash) {
+        long h = hash(chars, 0, length);
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters[index(h, row)]);
+        }
+        for (int row = 0; row < depth; row++) {
+            int index = index(h, row);
+            if (counters[index] == min) {
+                counters[index] = min + 1;
+            }
+        }
+        total++;
+
+        long estimate = min + 1;
+        if (size < capacity || estimate > counts[heap[0]]) {
+            track(chars, length, (int) h, estimate);
+        }
+    }
+
+    /**
+     * Estimates the frequency of a word.
+     * @param word - The word
+     * @return - A count that is never below the frequency of the word
+     */
+    long estimate(String word) {
+        long h = hash(word.toCharArray(), 0, word.length());
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters[index(h, row)]);
+        }
+        return min;
+    }
+
+    /**
+     * @return - The words kept as the most frequent, in no particular order
+     */
+    String[] heavyHitters() {
+        String[] result = new String[size];
+        for (int slot = 0; slot < size; slot++) {
+            result[slot] = new String(words[slot]);
+        }
+        return result;
+    }
+
+    /**
+     * @return - The number of words counted
+     */
+    long total() {
+        return total;
+    }
+
+    /**
+     * @return - The most the estimate of a word exceeds its frequency, unless the
+     *   unlikely happens
+     */
+    long errorBound() {
+        return (long) Math.ceil(Math.E / width * total);
+    }
+
+    /**
+     * Forgets every word counted, keeping the size of the sketch.
+     */
+    void clear() {
+        Arrays.fill(counters, 0);
+        Arrays.fill(words, null);
+        Arrays.fill(table, 0);
+        total = 0;
+        size = 0;
+    }
+
+    /**
+     * Raises the count of a word in the table of heavy hitters, adding the word in
+     *   place of the least frequent one if it is not there.
+     * @param chars - Buffer holding the word, starting at index 0
+     * @param length - The number of chars in the word
+     * @param hash - A hash of the word
+     * @param count - The estimate of the word
+     */
+    private void track(char[] chars, int length, int hash, long count) {
+        int tableMask = table.length - 1;
+        int position = hash & tableMask;
+        int entry;
+        while ((entry = table[position]) != 0) {
+            if (matches(words[entry - 1], chars, length)) {
+                counts[entry - 1] = count;
+                siftDown(heapIndex[entry - 1]);
+                return;
+            }
+            position = (position + 1) & tableMask;
+        }
+
+        int slot;
+        if (size < capacity) {
+            slot = size++;
+            heap[slot] = slot;
+            heapIndex[slot] = slot;
+        } else {
+            slot = heap[0];
+            remove(slot);
+            position = hash & tableMask;
+            while (table[position] != 0) {
+                position = (position + 1) & tableMask;
+            }
+        }
+        table[position] = slot + 1;
+        words[slot] = Arrays.copyOf(chars, length);
+        counts[slot] = count;
+        siftUp(heapIndex[slot]);
+        siftDown(heapIndex[slot]);
+    }
+
+    /**
+     * Removes a word from the lookup table, shifting back the words that probed
+     *   past it so no probe stops early.
+     * @param slot - The slot of the word
+     */
+    private void remove(int slot) {
+        int tableMask = table.length - 1;
+        int position = slotHash(slot) & tableMask;
+        while (table[position] != slot + 1) {
+            position = (position + 1) & tableMask;
+        }
+
+        int next = position;
+        while (true) {
+            next = (next + 1) & tableMask;
+            if (table[next] == 0) {
+                break;
+            }
+            int home = slotHash(table[next] - 1) & tableMask;
+            if (((next - home) & tableMask) >= ((next - position) & tableMask)) {
+                table[position] = table[next];
+                position = next;
+            }
+        }
+        table[position] = 0;
+    }
+
+    private static boolean matches(char[] word, char[] chars, int length) {
+        if (word.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (word[i] != chars[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int slotHash(int slot) {
+        return (int) hash(words[slot], 0, words[slot].length);
+    }
+
+    private void siftUp(int index) {
+        int slot = heap[index];
+        while (index > 0 && counts[heap[(index - 1) / 2]] > counts[slot]) {
+            heap[index] = heap[(index - 1) / 2];
+            heapIndex[heap[index]] = index;
+            index = (index - 1) / 2;
+        }
+        heap[index] = slot;
+        heapIndex[slot] = index;
+    }
+
+    private void siftDown(int index) {
+        int slot = heap[index];
+        int child;
+        while ((child = 2 * index + 1) < size) {
+            if (child + 1 < size && counts[heap[child + 1]] < counts[heap[child]]) {
+                child++;
+            }
+            if (counts[heap[child]] >= counts[slot]) {
+                break;
+            }
+            heap[index] = heap[child];
+            heapIndex[heap[index]] = index;
+            index = child;
+        }
+        heap[index] = slot;
+        heapIndex[slot] = index;
+    }
+
+    /**
+     * Finds the counter of a word in a row.
+     * @param hash - The hash of the word
+     * @param row - The row
+     * @return - The index of the counter
+     */
+    private int index(long hash, int row) {
+        return row * width + (int) ((hash * seeds[row]) >>> shift);
+    }
+
+    /**
+     * Hashes a range of chars into 64 bits, with FNV-1a followed by the finalizer
+     *   of MurmurHash3.
+     * @param chars - Buffer holding the characters
+     * @param offset - The index of the first character
+     * @param length - The number of characters
+     * @return - The hash
+     */
+    private static long hash(char[] chars, int offset, int length) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < length; i++) {
+            h = (h ^ chars[offset + i]) * 0x100000001B3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+}
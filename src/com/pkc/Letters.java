@@ -0,0 +1,106 @@
+//*******************************************************************
+//Author: Spencer E Reeves
+//Last Modified: 10-17-2026
+//
+//Purpose:
+//  Lookup tables that tell a WordTokenizer whether a code point belongs to a word
+//  and what it is stored as, so classifying and lowercasing a char of the BMP is a
+//  single array load instead of calls to Character.isAlphabetic and toLowerCase.
+//
+//Design Decisions:
+//  Folding tables - A table holds one char for every char of the BMP: 0 if it is
+//    not alphabetic, otherwise the char the word keeps, which is the char itself
+//    or its lowercase. A table takes 128KB, so tables are shared: one keeps case,
+//    one lowercases for every language but Turkish, Azeri and Lithuanian, and one
+//    is built for each of those three the first time it is asked for, as they are
+//    the only languages String.toLowerCase treats differently.
+//  Special letters - A letter whose lowercase depends on the letters around it or
+//    is not a single char (capital sigma, dotted capital I, the Lithuanian I and
+//    J) is marked SPECIAL, and the tokenizer lowercases the words holding one with
+//    String.toLowerCase(Locale) so the result always matches it.
+//  Supplementary code points - Letters outside the BMP are rare enough that they
+//    are left to Character, which String.toLowerCase also does for them.
+//*******************************************************************
+package com.pkc;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+final class Letters {
+
+    /**
+     * The table entry of a letter that must be lowercased with the rest of its word.
+     */
+    static final char SPECIAL = '\uFFFF';
+
+    private static final char[] KEEP_CASE = keepCase();
+    private static final char[] LOWER_CASE = lowerCase(Locale.ROOT);
+    private static final ConcurrentHashMap<String, char[]> LOCALES = new ConcurrentHashMap<>();
+
+    private Letters() {
+    }
+
+    /**
+     * @param cp - The code point to be checked
+     * @return - Whether the code point is part of a word
+     */
+    static boolean isLetter(int cp) {
+        if (cp < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+            return KEEP_CASE[cp] != 0;
+        }
+        return Character.isAlphabetic(cp);
+    }
+
+    /**
+     * Finds the folding table for a locale.
+     * @param locale - The locale the words are lowercased for
+     * @param ignoreCase - boolean for if the words should be lowercased
+     * @return - The table, 0 for chars that are not letters and otherwise the char
+     *   to be stored or SPECIAL
+     */
+    static char[] table(Locale locale, boolean ignoreCase) {
+        if (!ignoreCase) {
+            return KEEP_CASE;
+        }
+        String language = locale.getLanguage();
+        if (language.equals("tr") || language.equals("az") || language.equals("lt")) {
+            return LOCALES.computeIfAbsent(language, l -> lowerCase(locale));
+        }
+        return LOWER_CASE;
+    }
+
+    private static char[] keepCase() {
+        char[] table = new char[Character.MIN_SUPPLEMENTARY_CODE_POINT];
+        for (int c = 0; c < table.length; c++) {
+            if (Character.isAlphabetic(c)) {
+                table[c] = (char) c;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Builds a lowercasing table. A letter is only given its lowercase when
+     *   String.toLowerCase lowercases it alone to that char and leaves that char
+     *   as it is, so lowercasing the rest of a word again can not change it.
+     * @param locale - The locale the words are lowercased for
+     * @return - The table
+     */
+    private static char[] lowerCase(Locale locale) {
+        char[] table = new char[Character.MIN_SUPPLEMENTARY_CODE_POINT];
+        boolean lithuanian = locale.getLanguage().equals("lt");
+        for (int c = 0; c < table.length; c++) {
+            if (!Character.isAlphabetic(c)) {
+                continue;
+            }
+            String lower = String.valueOf((char) c).toLowerCase(locale);
+            if (c == '\u03A3' || (lithuanian && (c == 'I' || c == 'J' || c == '\u012E')) || lower.length() != 1
+                    || !lower.toLowerCase(locale).equals(lower)) {
+                table[c] = SPECIAL;
+            } else {
+                table[c] = lower.charAt(0);
+            }
+        }
+        return table;
+    }
+}
@@ -0,0 +1,180 @@
+//*******************************************************************
+//Author: Spencer E Reeves
+//Last Modified: 10-17-2026
+//
+//Purpose:
+//  Adds up the counters and timers of a concordance, and hands the reads and sorts
+//  it does to the flight recorder when the JVM has one.
+//
+//Design Decisions:
+//  Counters - The tokenizers count as they scan, and their counts are added here
+//    once per text, so nothing on the path of a char is shared or synchronized.
+//  Timers - Phases are timed with System.nanoTime, twice per phase, and only while
+//    timing is turned on. Turned off, a phase costs a read of a volatile boolean.
+//  Flight recorder - The events are classes of jdk.jfr, which older Java 8 runtimes
+//    lack, so they live in ConcordanceEvents and are only loaded when the JVM has
+//    jdk.jfr. Otherwise every event is a no op. Whether an event is recorded is
+//    left to the recording, as it is for the events of the JDK.
+//*******************************************************************
+package com.pkc;
+
+final class Metrics {
+
+    /**
+     * Receives the reads and sorts of every concordance.
+     */
+    interface Events {
+
+        /**
+         * @return - The event of a read that begins now, to be given to endRead
+         */
+        Object beginRead();
+
+        /**
+         * Ends and records the event of a read.
+         * @param event - The event returned by beginRead
+         * @param source - The method that read the text
+         * @param ignoreCase - Whether case was ignored
+         * @param bytes - The number of bytes scanned
+         * @param chars - The number of chars scanned
+         * @param tokens - The number of words read
+         */
+        void endRead(Object event, String source, boolean ignoreCase, long bytes, long chars, long tokens);
+
+        /**
+         * @return - The event of a sort that begins now, to be given to endSort
+         */
+        Object beginSort();
+
+        /**
+         * Ends and records the event of a sort.
+         * @param event - The event returned by beginSort
+         * @param order - What was sorted
+         * @param words - The number of words sorted
+         */
+        void endSort(Object event, String order, int words);
+    }
+
+    static final Events EVENTS = loadEvents();
+
+    private volatile boolean enabled = false;
+    private long bytes;
+    private long chars;
+    private long codePoints;
+    private long tokens;
+    private long resizes;
+    private long tokenizeNanos;
+    private long countNanos;
+    private long sortNanos;
+
+    /**
+     * @return - Whether phases are being timed
+     */
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param enabled - Whether phases are to be timed
+     */
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return - The start of a phase to be given to the method that ends it, or 0
+     *   if phases are not being timed
+     */
+    long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Adds the counts of a tokenizer that has finished its text.
+     * @param tokenizer - The tokenizer
+     */
+    synchronized void read(WordTokenizer tokenizer) {
+        bytes += tokenizer.bytes();
+        chars += tokenizer.chars();
+        codePoints += tokenizer.codePoints();
+        tokens += tokenizer.tokens();
+    }
+
+    /**
+     * Adds the resizes of a word table that is about to be dropped.
+     * @param count - The number of times the table grew
+     */
+    synchronized void resized(long count) {
+        resizes += count;
+    }
+
+    /**
+     * Ends a phase of tokenizing.
+     * @param start - The value start returned when the phase began
+     */
+    synchronized void tokenized(long start) {
+        if (start != 0) {
+            tokenizeNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Ends a phase of counting.
+     * @param start - The value start returned when the phase began
+     */
+    synchronized void counted(long start) {
+        if (start != 0) {
+            countNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Ends a phase of sorting.
+     * @param start - The value start returned when the phase began
+     */
+    synchronized void sorted(long start) {
+        if (start != 0) {
+            sortNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * @param distinctWords - The number of distinct words the concordance holds
+     * @param tableResizes - The resizes of the word table the concordance keeps
+     * @return - A snapshot of the counters and timers
+     */
+    synchronized ConcordanceStats snapshot(long distinctWords, long tableResizes) {
+        return new ConcordanceStats(bytes, chars, codePoints, tokens, distinctWords, resizes + tableResizes,
+                tokenizeNanos, countNanos, sortNanos);
+    }
+
+    /**
+     * @return - The flight recorder events if the JVM has jdk.jfr, and no ops otherwise
+     */
+    private static Events loadEvents() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return (Events) Class.forName("com.pkc.ConcordanceEvents").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError ex) {
+            return new Events() {
+                @Override
+                public Object beginRead() {
+                    return null;
+                }
+
+                @Override
+                public void endRead(Object event, String source, boolean ignoreCase, long bytes, long chars, long tokens) {
+                }
+
+                @Override
+                public Object beginSort() {
+                    return null;
+                }
+
+                @Override
+                public void endSort(Object event, String order, int words) {
+                }
+            };
+        }
+    }
+}
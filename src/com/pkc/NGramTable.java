@@ -0,0 +1,232 @@
+//*******************************************************************
+//Author: Spencer E Reeves
+//Last Modified: 10-17-2026
+//
+//Purpose:
+//  Counts the runs of 2 up to n consecutive words of a text, by the ids the words
+//  have in a WordTable, so an n-gram is counted without building a String of its
+//  words.
+//
+//Design Decisions:
+//  Packed keys - Each order of n-gram has a table of its own, and every distinct
+//    n-gram is given a dense id in it. A bigram is keyed by the ids of its two
+//    words packed into a long, and an n-gram of a higher order by the id of the
+//    n-gram of its first n - 1 words and the id of its last word. Every order fits
+//    in a long however many words there are, and the tokenizer only has to keep
+//    the id of the last n-gram of each order ending at the word before.
+//  Slots - Each slot of an open addressing table is a pair of longs: the key of
+//    an n-gram, then its id + 1 in the high half and its count in the low half.
+//    Counting an n-gram that is already in the table touches a single cache
+//    line. The keys are also kept by id, to find the words of an n-gram, and the
+//    counts are only gathered by id when the n-grams are listed. A key is hashed
+//    by multiplying it with a large odd constant and taking the high bits, which
+//    spreads the ids packed in the low half.
+//*******************************************************************
+package com.pkc;
+
+import java.util.Arrays;
+
+final class NGramTable {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Level[] levels;
+
+    /**
+     * Counts the n-grams of one order.
+     */
+    private static final class Level {
+
+        private long[] slots;
+        private int shift;
+        private long[] keys;
+        private int size;
+
+        Level() {
+            slots = new long[INITIAL_CAPACITY * 2];
+            shift = 64 - Integer.numberOfTrailingZeros(INITIAL_CAPACITY);
+            keys = new long[INITIAL_CAPACITY / 2];
+            size = 0;
+        }
+
+        /**
+         * Adds to the count of an n-gram, inserting it if it is not in the table.
+         * @param key - The packed key of the n-gram
+         * @param count - The number to be added to its count
+         * @return - The id of the n-gram
+         */
+        int add(long key, int count) {
+            int mask = (slots.length >>> 1) - 1;
+            int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+
+            long entry;
+            while ((entry = slots[2 * slot + 1]) != 0) {
+                if (slots[2 * slot] == key) {
+                    slots[2 * slot + 1] = entry + count;
+                    return (int) (entry >>> 32) - 1;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            int id = size++;
+            if (id == keys.length) {
+                keys = Arrays.copyOf(keys, keys.length * 2);
+            }
+            keys[id] = key;
+            slots[2 * slot] = key;
+            slots[2 * slot + 1] = ((long) (id + 1) << 32) | count;
+            if (size > mask / 2) {
+                rehash();
+            }
+            return id;
+        }
+
+        /**
+         * @return - The count of every n-gram, by id
+         */
+        int[] counts() {
+            int[] counts = new int[size];
+            for (int slot = 1; slot < slots.length; slot += 2) {
+                if (slots[slot] != 0) {
+                    counts[(int) (slots[slot] >>> 32) - 1] = (int) slots[slot];
+                }
+            }
+            return counts;
+        }
+
+        /**
+         * Doubles the number of slots and reinserts every n-gram.
+         */
+        private void rehash() {
+            long[] old = slots;
+            slots = new long[old.length * 2];
+            shift--;
+            int mask = (slots.length >>> 1) - 1;
+            for (int i = 0; i < old.length; i += 2) {
+                if (old[i + 1] != 0) {
+                    int slot = (int) ((old[i] * 0x9E3779B97F4A7C15L) >>> shift);
+                    while (slots[2 * slot + 1] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    slots[2 * slot] = old[i];
+                    slots[2 * slot + 1] = old[i + 1];
+                }
+            }
+        }
+    }
+
+    /**
+     * Instantiates empty tables for the n-grams of 2 up to n words.
+     * @param n - The number of words in the longest n-gram, at least 2
+     */
+    NGramTable(int n) {
+        if (n < 2) {
+            throw new IllegalArgumentException("An n-gram has at least 2 words: " + n);
+        }
+        levels = new Level[n - 1];
+        clear();
+    }
+
+    /**
+     * @return - The number of words in the longest n-gram counted
+     */
+    int maxN() {
+        return levels.length + 1;
+    }
+
+    /**
+     * @return - The state of a new text, to be given to add with each of its words
+     */
+    int[] history() {
+        int[] history = new int[levels.length];
+        Arrays.fill(history, -1);
+        return history;
+    }
+
+    /**
+     * Counts the n-grams that end at the next word of a text.
+     * @param history - The state of the text, from history(). Its first element
+     *   holds the id of the word before, and each other the id of the n-gram of
+     *   one more word ending there, or -1 if there is none.
+     * @param word - The id of the word
+     */
+    void add(int[] history, int word) {
+        for (int k = levels.length - 1; k >= 0; k--) {
+            int id = history[k] < 0 ? -1 : levels[k].add(pack(history[k], word), 1);
+            if (k + 1 < levels.length) {
+                history[k + 1] = id;
+            }
+        }
+        history[0] = word;
+    }
+
+    /**
+     * Adds every n-gram and count of another table to this one.
+     * @param other - The table to be added
+     * @param words - The id in this concordance of every word id of the other
+     */
+    void addAll(NGramTable other, int[] words) {
+        int[] prefixes = words;
+        for (int k = 0; k < Math.min(levels.length, other.levels.length); k++) {
+            Level level = other.levels[k];
+            int[] counts = level.counts();
+            int[] ids = new int[level.size];
+            for (int id = 0; id < level.size; id++) {
+                long key = level.keys[id];
+                ids[id] = levels[k].add(pack(prefixes[(int) (key >>> 32)], words[(int) key]), counts[id]);
+            }
+            prefixes = ids;
+        }
+    }
+
+    /**
+     * @param n - The number of words in the n-grams
+     * @return - The number of distinct n-grams of that many words
+     */
+    int size(int n) {
+        return levels[n - 2].size;
+    }
+
+    /**
+     * @param n - The number of words in the n-grams
+     * @return - The number of times each n-gram of that many words has been
+     *   counted, by id
+     */
+    int[] counts(int n) {
+        return levels[n - 2].counts();
+    }
+
+    /**
+     * Finds the words of an n-gram.
+     * @param n - The number of words in the n-gram
+     * @param id - The id of the n-gram
+     * @param words - Receives the word ids of the n-gram, from the first
+     * @param offset - The index the first word id is written to
+     */
+    void words(int n, int id, int[] words, int offset) {
+        for (int k = n - 2; k >= 0; k--) {
+            long key = levels[k].keys[id];
+            words[offset + k + 1] = (int) key;
+            id = (int) (key >>> 32);
+        }
+        words[offset] = id;
+    }
+
+    /**
+     * Removes every n-gram and releases the storage.
+     */
+    void clear() {
+        for (int k = 0; k < levels.length; k++) {
+            levels[k] = new Level();
+        }
+    }
+
+    /**
+     * @param prefix - The id of the first word, or of the n-gram of the first n - 1 words
+     * @param word - The id of the last word
+     * @return - The key of the n-gram
+     */
+    private static long pack(int prefix, int word) {
+        return ((long) prefix << 32) | (word & 0xFFFFFFFFL);
+    }
+}
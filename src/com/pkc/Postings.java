@@ -0,0 +1,162 @@
+//*******************************************************************
+//Author: Spencer E Reeves
+//Last Modified: 10-17-2026
+//
+//Purpose:
+//  Records where every word occurs, as compressed lists of occurrences kept by
+//  the id the word has in its WordTable.
+//
+//Design Decisions:
+//  Delta and varint - An occurrence in the same text as the one before it is
+//    written as the distance from that occurrence, shifted left once, in a varint.
+//    Most gaps fit in one or two bytes. An occurrence in another text sets the low
+//    bit and is followed by the zigzag encoded change of text, so texts read by
+//    several feeds at once can interleave.
+//  Lists - Each word has a byte array of its own that doubles as it fills. A
+//    word seen once costs a short array, and a frequent word costs about as many
+//    bytes per occurrence as its gaps need.
+//*******************************************************************
+package com.pkc;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+final class Postings {
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int INITIAL_LIST = 4;
+
+    private byte[][] lists;
+    private int[] sizes;
+    private int[] lastTexts;
+    private long[] lastOffsets;
+    private long bytes;
+
+    /**
+     * Instantiates empty postings.
+     */
+    Postings() {
+        clear();
+    }
+
+    /**
+     * Records an occurrence of a word.
+     * @param id - The id of the word
+     * @param text - The number of the text the word occurs in
+     * @param offset - The offset of the word in the text
+     */
+    void add(int id, int text, long offset) {
+        if (id >= sizes.length) {
+            int capacity = Math.max(id + 1, sizes.length * 2);
+            lists = Arrays.copyOf(lists, capacity);
+            sizes = Arrays.copyOf(sizes, capacity);
+            lastTexts = Arrays.copyOf(lastTexts, capacity);
+            lastOffsets = Arrays.copyOf(lastOffsets, capacity);
+        }
+        if (lists[id] == null) {
+            lists[id] = new byte[INITIAL_LIST];
+            bytes += INITIAL_LIST;
+        }
+
+        if (sizes[id] != 0 && lastTexts[id] == text) {
+            write(id, (offset - lastOffsets[id]) << 1);
+        } else {
+            int change = text - lastTexts[id];
+            write(id, (offset << 1) | 1);
+            write(id, ((change << 1) ^ (change >> 31)) & 0xFFFFFFFFL);
+        }
+        lastTexts[id] = text;
+        lastOffsets[id] = offset;
+    }
+
+    /**
+     * Lists the occurrences of a word, decoding them as they are iterated. Only the
+     *   occurrences recorded before this call are listed.
+     * @param id - The id of the word, or -1 for a word that does not occur
+     * @return - The occurrences in the order they were recorded
+     */
+    Iterator<Concordance.Occurrence> occurrences(int id) {
+        byte[] list = (id < 0 || id >= sizes.length) ? null : lists[id];
+        int size = (list == null) ? 0 : sizes[id];
+
+        return new Iterator<Concordance.Occurrence>() {
+            private int position = 0;
+            private int text = 0;
+            private long offset = 0;
+
+            @Override
+            public boolean hasNext() {
+                return position < size;
+            }
+
+            @Override
+            public Concordance.Occurrence next() {
+                if (position >= size) {
+                    throw new NoSuchElementException();
+                }
+                long value = read();
+                if ((value & 1) == 0) {
+                    offset += value >>> 1;
+                } else {
+                    offset = value >>> 1;
+                    int change = (int) read();
+                    text += (change >>> 1) ^ -(change & 1);
+                }
+                return new Concordance.Occurrence(text, offset);
+            }
+
+            private long read() {
+                long result = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = list[position++];
+                    result |= (long) (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                return result;
+            }
+        };
+    }
+
+    /**
+     * @return - The number of bytes the lists of occurrences take up
+     */
+    long byteSize() {
+        return bytes;
+    }
+
+    /**
+     * Removes every occurrence.
+     */
+    void clear() {
+        lists = new byte[INITIAL_CAPACITY][];
+        sizes = new int[INITIAL_CAPACITY];
+        lastTexts = new int[INITIAL_CAPACITY];
+        lastOffsets = new long[INITIAL_CAPACITY];
+        bytes = 0;
+    }
+
+    /**
+     * Appends a varint to the list of a word.
+     * @param id - The id of the word
+     * @param value - The value, which must not be negative
+     */
+    private void write(int id, long value) {
+        byte[] list = lists[id];
+        int size = sizes[id];
+        int length = (64 - Long.numberOfLeadingZeros(value | 1) + 6) / 7;
+        if (size + length > list.length) {
+            int capacity = Math.max(list.length * 2, size + length);
+            bytes += capacity - list.length;
+            list = lists[id] = Arrays.copyOf(list, capacity);
+        }
+        while ((value & ~0x7FL) != 0) {
+            list[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        list[size++] = (byte) value;
+        sizes[id] = size;
+    }
+}
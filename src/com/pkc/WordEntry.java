@@ -0,0 +1,63 @@
+//*******************************************************************
+//Author: Spencer E Reeves
+//Last Modified: 10-17-2026
+//
+//Purpose:
+//  An entry of a word and its frequency that carries the collation key of the
+//  word. The key is computed once per distinct word, so sorting compares keys
+//  bit by bit instead of running the locale rules on every comparison.
+//*******************************************************************
+package com.pkc;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Map.Entry;
+
+final class WordEntry extends SimpleImmutableEntry<String, Integer> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient CollationKey collationKey;
+
+    /**
+     * Instantiates a new entry for a word.
+     * @param collationKey - The collation key of the word
+     * @param count - The frequency of the word
+     */
+    WordEntry(CollationKey collationKey, int count) {
+        super(collationKey.getSourceString(), count);
+        this.collationKey = collationKey;
+    }
+
+    /**
+     * @param count - The new frequency of the word
+     * @return - An entry for the same word with another frequency
+     */
+    WordEntry withCount(int count) {
+        return new WordEntry(collationKey, count);
+    }
+
+    /**
+     * @return - The collation key of the word
+     */
+    CollationKey getCollationKey() {
+        return collationKey;
+    }
+
+    /**
+     * Compares the words of two entries. Collation keys are used when both entries
+     *   have one, which gives the same result as the collator itself.
+     * @param collator - The collator the keys were made with
+     * @param o1 - The first entry
+     * @param o2 - The second entry
+     * @return - A negative number, zero, or a positive number as the first word
+     *   sorts before, with, or after the second
+     */
+    static int compare(Collator collator, Entry<String, Integer> o1, Entry<String, Integer> o2) {
+        if (o1 instanceof WordEntry && o2 instanceof WordEntry) {
+            return ((WordEntry) o1).collationKey.compareTo(((WordEntry) o2).collationKey);
+        }
+        return collator.compare(o1.getKey(), o2.getKey());
+    }
+}
@@ -0,0 +1,859 @@
+//*******************************************************************
+//Author: Spencer E Reeves
+//Last Modified: 10-17-2026
+//
+//Purpose:
+//  Saves the words of a concordance in a compact binary file, and serves them
+//  back from the memory mapped file without rebuilding a table or a sorted set.
+//
+//Format:
+//  Header - The magic number, the format version, a flag byte for ignoring case
+//    and the language tag of the locale as a varint length and UTF-8 bytes.
+//  Blocks - The words in the order of their collation keys, ties broken by comparing
+//    chars. Every word is written as a varint of the bytes it shares with the word
+//    before it, a varint of the bytes that follow, those UTF-8 bytes, and a varint
+//    of its count shifted left once. The low bit is set when the collator finds the word
+//    equal to the word before it, which a sorted set would have dropped. The
+//    first word of every block of BLOCK_SIZE shares nothing, so a block can be
+//    decoded on its own.
+//  Trailer - The offset of every block as an int, then the number of words, the
+//    number of words a sorted set holds, the number of blocks, the offset of the
+//    block offsets and the magic number.
+//
+//Design Decisions:
+//  Blocks - Words are found with a binary search over the first word of every
+//    block followed by a scan of at most one block, so a lookup decodes a few
+//    dozen words however large the file is. The collation keys of the first
+//    words are built once, the first time a word is looked up, so the search
+//    only compares keys. An exact lookup then scans its block comparing UTF-8
+//    bytes, and any other scan builds one key for each word it passes.
+//  Filter - A writer keeps the hash of every word it writes, and can build a
+//    WordFilter from them, so a file opened with one answers most lookups of a
+//    word it does not hold without searching.
+//  Trailer - The offsets are only known once every word has been written, so
+//    they follow the blocks. The file can be written in one pass from any sorted
+//    source of words, including a merge of other files.
+//  Merging - Files are already sorted, so they are merged by reading them side by
+//    side, holding one word per file in memory, rather than hashing every word.
+//*******************************************************************
+package com.pkc;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.SortedSet;
+
+final class WordFile {
+
+    static final int MAGIC = 0x434F4E43;
+    static final int VERSION = 1;
+    static final int BLOCK_SIZE = 16;
+    private static final int TRAILER_SIZE = 20;
+
+    private final Path file;
+    private final ByteBuffer buffer;
+    private final Locale locale;
+    private final boolean ignoreCase;
+    private final Collator collator;
+    private final int size;
+    private final int listed;
+    private final int blocks;
+    private final int index;
+    private final WordFilter filter;
+    private volatile CollationKey[] heads;
+
+    /**
+     * Reads the header and trailer of a mapped file.
+     * @param file - The path of the file
+     * @param buffer - The whole file
+     * @param filter - The filter of the words of the file, or null
+     * @throws IOException if the file is not a concordance file
+     */
+    private WordFile(Path file, ByteBuffer buffer, WordFilter filter) throws IOException {
+        this.file = file;
+        this.buffer = buffer;
+        this.filter = filter;
+
+        int limit = buffer.limit();
+        if (limit < 9 + TRAILER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(limit - 4) != MAGIC) {
+            throw new IOException("Not a concordance file: " + file);
+        } else if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported concordance file version " + buffer.getInt(4) + ": " + file);
+        }
+
+        ignoreCase = buffer.get(8) != 0;
+        int[] position = {9};
+        int length = (int) readVarint(buffer, position);
+        byte[] tag = new byte[length];
+        for (int i = 0; i < length; i++) {
+            tag[i] = buffer.get(position[0] + i);
+        }
+        locale = Locale.forLanguageTag(new String(tag, StandardCharsets.UTF_8));
+        collator = Collator.getInstance(locale);
+
+        size = buffer.getInt(limit - TRAILER_SIZE);
+        listed = buffer.getInt(limit - 16);
+        blocks = buffer.getInt(limit - 12);
+        index = buffer.getInt(limit - 8);
+        if (blocks != (size + BLOCK_SIZE - 1) / BLOCK_SIZE || index < 0 || index + 4L * blocks != limit - TRAILER_SIZE) {
+            throw new IOException("Corrupt concordance file: " + file);
+        }
+    }
+
+    /**
+     * Memory maps a file written by a Writer.
+     * @param file - The path of the file
+     * @return - The opened file
+     * @throws IOException if the file can not be read or is not a concordance file
+     */
+    static WordFile open(Path file) throws IOException {
+        return open(file, null);
+    }
+
+    /**
+     * Memory maps a file written by a Writer, along with the filter of its words.
+     * @param file - The path of the file
+     * @param filter - The filter built by the writer of the file, or null
+     * @return - The opened file
+     * @throws IOException if the file can not be read or is not a concordance file
+     */
+    static WordFile open(Path file, WordFilter filter) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Concordance file too large to map: " + file);
+            }
+            return new WordFile(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), filter);
+        }
+    }
+
+    /**
+     * @return - The locale the words are sorted by
+     */
+    Locale getLocale() {
+        return locale;
+    }
+
+    /**
+     * @return - Whether case was ignored when the words were read
+     */
+    boolean isIgnoreCase() {
+        return ignoreCase;
+    }
+
+    /**
+     * @return - The number of words in the file
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Finds the count of a word.
+     * @param word - The word to be searched for, already lowercased if case is ignored
+     * @return - The count of the word, or 0 if it is not in the file
+     */
+    int frequency(String word) {
+        if (filter != null && !filter.mightContain(word)) {
+            return 0;
+        }
+        Cursor cursor = find(word, collator.getCollationKey(word));
+        return (cursor == null) ? 0 : cursor.count;
+    }
+
+    /**
+     * @param index - The index of the first word to be read
+     * @return - A cursor positioned before that word
+     */
+    Cursor cursor(int index) {
+        Cursor cursor = new Cursor(index / BLOCK_SIZE);
+        while (cursor.index + 1 < index) {
+            cursor.next();
+        }
+        return cursor;
+    }
+
+    /**
+     * Presents the words as a read only set in alphabetical order, as getWords
+     *   would return them.
+     * @param reversed - Whether the set is in reverse order
+     * @return - The set
+     */
+    SortedSet<Entry<String, Integer>> view(boolean reversed) {
+        return new View(0, size, reversed);
+    }
+
+    /**
+     * Copies the file, unless it would be copied onto itself.
+     * @param target - The path to be written
+     * @throws IOException
+     */
+    void copyTo(Path target) throws IOException {
+        if (Files.exists(target) && Files.isSameFile(file, target)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer bytes = buffer.duplicate();
+            bytes.clear();
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * Finds the first word not before a given word.
+     * @param word - The word to be searched for
+     * @param exact - Whether words with equal collation keys are told apart by
+     *   their chars, as the file is ordered, or treated as equal
+     * @param after - Whether to skip the words the comparator finds equal to word
+     * @return - A cursor on the first word that compares greater than, or equal
+     *   to unless after is set, the given word. Its index is size if there is none.
+     */
+    private Cursor seek(String word, boolean exact, boolean after) {
+        return seek(word, collator.getCollationKey(word), exact, after);
+    }
+
+    /**
+     * Finds the first word not before a given word, as seek does.
+     * @param word - The word to be searched for
+     * @param key - The collation key of the word
+     * @param exact - Whether words with equal collation keys are told apart by
+     *   their chars, as the file is ordered, or treated as equal
+     * @param after - Whether to skip the words the comparator finds equal to word
+     * @return - A cursor on the first word that compares greater than, or equal
+     *   to unless after is set, the given word. Its index is size if there is none.
+     */
+    private Cursor seek(String word, CollationKey key, boolean exact, boolean after) {
+        Cursor cursor = new Cursor(Math.max(0, block(key, word, exact, after) - 1));
+        while (cursor.next()) {
+            int comp = collator.getCollationKey(cursor.word()).compareTo(key);
+            if (comp == 0 && exact) {
+                comp = cursor.word().compareTo(word);
+            }
+            if (comp > 0 || (comp == 0 && !after)) {
+                cursor.comparison = comp;
+                return cursor;
+            }
+        }
+        return cursor;
+    }
+
+    /**
+     * Finds a word by its UTF-8 bytes, in the one block it can be in.
+     * @param word - The word to be searched for
+     * @param key - The collation key of the word
+     * @return - A cursor on the word, or null if it is not in the file
+     */
+    private Cursor find(String word, CollationKey key) {
+        byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+        Cursor cursor = new Cursor(Math.max(0, block(key, word, true, false) - 1));
+        for (int i = 0; i <= BLOCK_SIZE && cursor.next(); i++) {
+            if (cursor.matches(bytes)) {
+                return cursor;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the first block whose first word is not before a given word, by the
+     *   collation keys of the first words.
+     * @param key - The collation key of the word
+     * @param word - The word to be searched for
+     * @param exact - Whether words with equal collation keys are told apart by
+     *   their chars
+     * @param after - Whether first words the comparison finds equal to word are
+     *   skipped
+     * @return - The index of the block, or the number of blocks if there is none
+     */
+    private int block(CollationKey key, String word, boolean exact, boolean after) {
+        CollationKey[] heads = heads();
+        int low = 0;
+        int high = blocks;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int comp = heads[middle].compareTo(key);
+            if (comp == 0 && exact) {
+                Cursor first = new Cursor(middle);
+                first.next();
+                comp = first.word().compareTo(word);
+            }
+            if (comp > 0 || (comp == 0 && !after)) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return - The collation key of the first word of every block, built the
+     *   first time it is needed
+     */
+    private CollationKey[] heads() {
+        CollationKey[] keys = heads;
+        if (keys == null) {
+            keys = new CollationKey[blocks];
+            for (int block = 0; block < blocks; block++) {
+                Cursor first = new Cursor(block);
+                first.next();
+                keys[block] = collator.getCollationKey(first.word());
+            }
+            heads = keys;
+        }
+        return keys;
+    }
+
+    /**
+     * Merges files into one in a single streaming pass. Every file is read by a
+     *   cursor, and the cursors are kept in a heap ordered by their current word,
+     *   so the counts of a word found in several files are added as it comes up.
+     * @param files - The files to be merged, all with the same locale and case setting
+     * @param target - The path of the merged file
+     * @throws IOException
+     */
+    static void merge(List<WordFile> files, Path target) throws IOException {
+        WordFile first = files.get(0);
+        for (WordFile file : files) {
+            if (!file.locale.equals(first.locale) || file.ignoreCase != first.ignoreCase) {
+                throw new IllegalArgumentException("Can not merge " + file.file + " (" + file.locale + ", ignoreCase "
+                        + file.ignoreCase + ") with " + first.file + " (" + first.locale + ", ignoreCase " + first.ignoreCase + ")");
+            }
+        }
+        merge(files, target, first.ignoreCase);
+    }
+
+    /**
+     * Merges the runs of one concordance, which may have been spilled while it
+     *   ignored case and while it did not.
+     * @param files - The files to be merged, all with the same locale
+     * @param target - The path of the merged file
+     * @param ignoreCase - Whether the merged file is marked as ignoring case
+     * @return - The filter of the words of the merged file
+     * @throws IOException
+     */
+    static WordFilter merge(List<WordFile> files, Path target, boolean ignoreCase) throws IOException {
+        WordFile first = files.get(0);
+        Collator collator = first.collator;
+        PriorityQueue<Head> heads = new PriorityQueue<>(Math.max(1, files.size()));
+        for (WordFile file : files) {
+            Head head = new Head(file.cursor(0), collator);
+            if (head.next()) {
+                heads.add(head);
+            }
+        }
+
+        try (Writer writer = new Writer(target, first.locale, ignoreCase)) {
+            CollationKey previous = null;
+            while (!heads.isEmpty()) {
+                Head head = heads.poll();
+                String word = head.cursor.word();
+                CollationKey key = head.key;
+                int count = head.cursor.count;
+                if (head.next()) {
+                    heads.add(head);
+                }
+                while (!heads.isEmpty() && heads.peek().cursor.word().equals(word)) {
+                    Head same = heads.poll();
+                    count = Math.addExact(count, same.cursor.count);
+                    if (same.next()) {
+                        heads.add(same);
+                    }
+                }
+
+                writer.add(word, count, previous != null && previous.compareTo(key) == 0);
+                previous = key;
+            }
+            writer.finish();
+            return writer.filter();
+        }
+    }
+
+    /**
+     * A cursor of a file being merged, with the collation key of its current word.
+     */
+    private static final class Head implements Comparable<Head> {
+
+        private final Cursor cursor;
+        private final Collator collator;
+        private CollationKey key;
+
+        Head(Cursor cursor, Collator collator) {
+            this.cursor = cursor;
+            this.collator = collator;
+        }
+
+        boolean next() {
+            if (!cursor.next()) {
+                return false;
+            }
+            key = collator.getCollationKey(cursor.word());
+            return true;
+        }
+
+        @Override
+        public int compareTo(Head o) {
+            int comp = key.compareTo(o.key);
+            return (comp == 0) ? cursor.word().compareTo(o.cursor.word()) : comp;
+        }
+    }
+
+    /**
+     * Reads a varint.
+     * @param buffer - The buffer to read from
+     * @param position - The position to read at, advanced past the varint
+     * @return - The value
+     */
+    private static long readVarint(ByteBuffer buffer, int[] position) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get(position[0]++);
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    /**
+     * Reads the words of the file in order, starting at the beginning of a block.
+     */
+    final class Cursor {
+
+        private final int[] position = new int[1];
+        private byte[] key = new byte[64];
+        private int length;
+        private int index;
+        private String word;
+        private int count;
+        private boolean duplicate;
+        private int comparison;
+
+        private Cursor(int block) {
+            index = block * BLOCK_SIZE - 1;
+            position[0] = block < blocks ? buffer.getInt(WordFile.this.index + 4 * block) : 0;
+        }
+
+        /**
+         * Moves to the next word.
+         * @return - false if there are no more words
+         */
+        boolean next() {
+            word = null;
+            if (index + 1 >= size) {
+                index = size;
+                length = 0;
+                return false;
+            }
+            index++;
+
+            int shared = (int) readVarint(buffer, position);
+            int suffix = (int) readVarint(buffer, position);
+            if (shared + suffix > key.length) {
+                key = Arrays.copyOf(key, Math.max(key.length * 2, shared + suffix));
+            }
+            for (int i = 0; i < suffix; i++) {
+                key[shared + i] = buffer.get(position[0] + i);
+            }
+            position[0] += suffix;
+            length = shared + suffix;
+
+            long value = readVarint(buffer, position);
+            count = (int) (value >>> 1);
+            duplicate = (value & 1) != 0;
+            return true;
+        }
+
+        /**
+         * @return - The index of the current word
+         */
+        int index() {
+            return index;
+        }
+
+        /**
+         * @return - The current word, decoded the first time it is asked for, or
+         *   null past the last word
+         */
+        String word() {
+            if (word == null && index < size) {
+                word = new String(key, 0, length, StandardCharsets.UTF_8);
+            }
+            return word;
+        }
+
+        /**
+         * @param bytes - The UTF-8 bytes of a word
+         * @return - Whether the current word is made of those bytes
+         */
+        private boolean matches(byte[] bytes) {
+            if (bytes.length != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (key[i] != bytes[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return - The count of the current word
+         */
+        int count() {
+            return count;
+        }
+
+        /**
+         * @return - Whether the collator finds the current word equal to the one before it
+         */
+        boolean isDuplicate() {
+            return duplicate;
+        }
+    }
+
+    /**
+     * The words from one index up to another presented as a sorted set, skipping
+     *   the words the collator finds equal to the one before them.
+     */
+    private final class View extends AbstractSet<Entry<String, Integer>> implements SortedSet<Entry<String, Integer>> {
+
+        private final int from;
+        private final int to;
+        private final boolean reversed;
+        private final Comparator<Entry<String, Integer>> comparator;
+        private int size = -1;
+
+        View(int from, int to, boolean reversed) {
+            this.from = from;
+            this.to = Math.max(from, to);
+            this.reversed = reversed;
+            Comparator<Entry<String, Integer>> alphabetic = (o1, o2) -> {return collator.compare(o1.getKey(), o2.getKey());};
+            this.comparator = reversed ? alphabetic.reversed() : alphabetic;
+        }
+
+        @Override
+        public Iterator<Entry<String, Integer>> iterator() {
+            return reversed ? new Descending() : new Ascending();
+        }
+
+        @Override
+        public int size() {
+            if (size < 0) {
+                if (from == 0 && to == WordFile.this.size) {
+                    size = listed;
+                } else {
+                    int count = 0;
+                    for (Cursor cursor = cursor(from); cursor.next() && cursor.index < to; ) {
+                        if (!cursor.duplicate || cursor.index == from) {
+                            count++;
+                        }
+                    }
+                    size = count;
+                }
+            }
+            return size;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return from == to;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Entry) || !(((Entry<?, ?>) o).getKey() instanceof String)) {
+                return false;
+            }
+            String word = (String) ((Entry<?, ?>) o).getKey();
+            CollationKey key = collator.getCollationKey(word);
+            Cursor cursor = find(word, key);
+            if (cursor != null && cursor.index >= from && cursor.index < to) {
+                return true;
+            }
+            cursor = seek(word, key, false, false);
+            return cursor.index >= from && cursor.index < to && cursor.comparison == 0;
+        }
+
+        @Override
+        public Comparator<? super Entry<String, Integer>> comparator() {
+            return comparator;
+        }
+
+        @Override
+        public Entry<String, Integer> first() {
+            return iterator().next();
+        }
+
+        @Override
+        public Entry<String, Integer> last() {
+            return (reversed ? new Ascending() : new Descending()).next();
+        }
+
+        @Override
+        public SortedSet<Entry<String, Integer>> subSet(Entry<String, Integer> fromElement, Entry<String, Integer> toElement) {
+            if (comparator.compare(fromElement, toElement) > 0) {
+                throw new IllegalArgumentException("fromElement > toElement");
+            }
+            return reversed ? range(bound(toElement, true), bound(fromElement, true)) : range(bound(fromElement, false), bound(toElement, false));
+        }
+
+        @Override
+        public SortedSet<Entry<String, Integer>> headSet(Entry<String, Integer> toElement) {
+            return reversed ? range(bound(toElement, true), to) : range(from, bound(toElement, false));
+        }
+
+        @Override
+        public SortedSet<Entry<String, Integer>> tailSet(Entry<String, Integer> fromElement) {
+            return reversed ? range(from, bound(fromElement, true)) : range(bound(fromElement, false), to);
+        }
+
+        /**
+         * @param element - An entry
+         * @param after - Whether words equal to the entry are skipped
+         * @return - The index of the first word not before the entry, within this set
+         */
+        private int bound(Entry<String, Integer> element, boolean after) {
+            int bound = seek(element.getKey(), false, after).index;
+            return Math.min(to, Math.max(from, bound));
+        }
+
+        private SortedSet<Entry<String, Integer>> range(int start, int end) {
+            return new View(start, end, reversed);
+        }
+
+        /**
+         * Iterates the words from the first index to the last.
+         */
+        private final class Ascending implements Iterator<Entry<String, Integer>> {
+
+            private final Cursor cursor = cursor(from);
+            private Entry<String, Integer> next = advance();
+
+            private Entry<String, Integer> advance() {
+                while (cursor.next() && cursor.index < to) {
+                    if (!cursor.duplicate || cursor.index == from) {
+                        return new SimpleImmutableEntry<>(cursor.word(), cursor.count);
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Entry<String, Integer> next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Entry<String, Integer> entry = next;
+                next = advance();
+                return entry;
+            }
+        }
+
+        /**
+         * Iterates the words from the last index to the first, decoding one block
+         *   at a time.
+         */
+        private final class Descending implements Iterator<Entry<String, Integer>> {
+
+            private final String[] words = new String[BLOCK_SIZE];
+            private final int[] counts = new int[BLOCK_SIZE];
+            private int blockStart = to;
+            private int next = to;
+
+            Descending() {
+                advance();
+            }
+
+            /**
+             * Moves to the previous word the set holds.
+             */
+            private void advance() {
+                while (--next >= from) {
+                    if (next < blockStart) {
+                        blockStart = Math.max(from, next - next % BLOCK_SIZE);
+                        Cursor cursor = cursor(blockStart);
+                        Arrays.fill(words, null);
+                        while (cursor.next() && cursor.index <= next) {
+                            if (!cursor.duplicate || cursor.index == from) {
+                                words[cursor.index - blockStart] = cursor.word();
+                                counts[cursor.index - blockStart] = cursor.count;
+                            }
+                        }
+                    }
+                    if (words[next - blockStart] != null) {
+                        return;
+                    }
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next >= from;
+            }
+
+            @Override
+            public Entry<String, Integer> next() {
+                if (next < from) {
+                    throw new NoSuchElementException();
+                }
+                Entry<String, Integer> entry = new SimpleImmutableEntry<>(words[next - blockStart], counts[next - blockStart]);
+                advance();
+                return entry;
+            }
+        }
+    }
+
+    /**
+     * Writes a file in one pass. Words must be added in the order of their collation
+     *   keys, ties broken by comparing chars, and finish called before the writer is
+     *   closed.
+     */
+    static final class Writer implements Closeable {
+
+        private final DataOutputStream output;
+        private long position;
+        private int[] offsets = new int[64];
+        private int[] hashes = new int[64];
+        private byte[] previous = new byte[0];
+        private int size;
+        private int listed;
+
+        /**
+         * Creates a file and writes its header.
+         * @param file - The path of the file
+         * @param locale - The locale the words are sorted by
+         * @param ignoreCase - Whether case was ignored when the words were read
+         * @throws IOException
+         */
+        Writer(Path file, Locale locale, boolean ignoreCase) throws IOException {
+            output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+            byte[] tag = locale.toLanguageTag().getBytes(StandardCharsets.UTF_8);
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeByte(ignoreCase ? 1 : 0);
+            writeVarint(tag.length);
+            output.write(tag);
+            position = output.size();
+        }
+
+        /**
+         * Writes the next word.
+         * @param word - The word
+         * @param count - The count of the word
+         * @param duplicate - Whether the collator finds the word equal to the one before it
+         * @throws IOException
+         */
+        void add(String word, int count, boolean duplicate) throws IOException {
+            byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+            int shared = 0;
+            if (size % BLOCK_SIZE == 0) {
+                if (size / BLOCK_SIZE == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                }
+                offsets[size / BLOCK_SIZE] = (int) position;
+            } else {
+                int max = Math.min(bytes.length, previous.length);
+                while (shared < max && bytes[shared] == previous[shared]) {
+                    shared++;
+                }
+            }
+
+            position += writeVarint(shared);
+            position += writeVarint(bytes.length - shared);
+            output.write(bytes, shared, bytes.length - shared);
+            position += bytes.length - shared;
+            position += writeVarint(((long) count << 1) | (duplicate ? 1 : 0));
+            if (position > Integer.MAX_VALUE) {
+                throw new IOException("Concordance file too large");
+            }
+
+            if (size == hashes.length) {
+                hashes = Arrays.copyOf(hashes, hashes.length * 2);
+            }
+            hashes[size] = word.hashCode();
+            previous = bytes;
+            size++;
+            if (!duplicate) {
+                listed++;
+            }
+        }
+
+        /**
+         * Writes the trailer, once every word has been added. A file closed without
+         *   it can not be opened.
+         * @throws IOException
+         */
+        void finish() throws IOException {
+            int blocks = (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            if (position + 4L * blocks + TRAILER_SIZE > Integer.MAX_VALUE) {
+                throw new IOException("Concordance file too large");
+            }
+            int index = (int) position;
+            for (int i = 0; i < blocks; i++) {
+                output.writeInt(offsets[i]);
+            }
+            output.writeInt(size);
+            output.writeInt(listed);
+            output.writeInt(blocks);
+            output.writeInt(index);
+            output.writeInt(MAGIC);
+        }
+
+        /**
+         * @return - A filter of every word added so far
+         */
+        WordFilter filter() {
+            return new WordFilter(hashes, size);
+        }
+
+        @Override
+        public void close() throws IOException {
+            output.close();
+        }
+
+        /**
+         * Writes a varint.
+         * @param value - The value
+         * @return - The number of bytes written
+         * @throws IOException
+         */
+        private int writeVarint(long value) throws IOException {
+            int bytes = 1;
+            while ((value & ~0x7FL) != 0) {
+                output.writeByte((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+                bytes++;
+            }
+            output.writeByte((int) value);
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+//*******************************************************************
+//Author: Spencer E Reeves
+//Last Modified: 10-17-2026
+//
+//Purpose:
+//  A Bloom filter of the words of a WordFile, which tells whether a word may be
+//  in the file without searching it. A word that is in the file is always found
+//  to be, and about one word in a hundred that is not is found to be as well.
+//
+//Design Decisions:
+//  Hashes - The filter is built from the hashCode of every word, which a String
+//    caches, so checking a word costs no hashing beyond mixing that int. The
+//    probes are spread from the two halves of one 64 bit mix of it.
+//  Size - Ten bits per word, rounded up to a power of two so a probe is masked
+//    rather than divided, with seven probes.
+//*******************************************************************
+package com.pkc;
+
+final class WordFilter {
+
+    private static final int BITS_PER_WORD = 10;
+    private static final int PROBES = 7;
+
+    private final long[] bits;
+    private final int mask;
+
+    /**
+     * Builds a filter holding a number of words.
+     * @param hashes - The hashCode of every word
+     * @param size - The number of hashes to be used, from the first
+     */
+    WordFilter(int[] hashes, int size) {
+        long wanted = Math.max(64L, (long) size * BITS_PER_WORD);
+        int length = (int) Math.min(1L << 30, Long.highestOneBit(wanted - 1) << 1);
+        bits = new long[length >>> 6];
+        mask = length - 1;
+        for (int i = 0; i < size; i++) {
+            long mixed = mix(hashes[i]);
+            int probe = (int) mixed;
+            int step = (int) (mixed >>> 32) | 1;
+            for (int k = 0; k < PROBES; k++, probe += step) {
+                bits[(probe & mask) >>> 6] |= 1L << probe;
+            }
+        }
+    }
+
+    /**
+     * @param word - The word to be checked
+     * @return - false if the word is not in the file, and true if it may be
+     */
+    boolean mightContain(String word) {
+        long mixed = mix(word.hashCode());
+        int probe = (int) mixed;
+        int step = (int) (mixed >>> 32) | 1;
+        for (int k = 0; k < PROBES; k++, probe += step) {
+            if ((bits[(probe & mask) >>> 6] & (1L << probe)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long mix(int hash) {
+        long mixed = hash * 0x9E3779B97F4A7C15L;
+        return mixed ^ (mixed >>> 29);
+    }
+}
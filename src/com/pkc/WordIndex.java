@@ -0,0 +1,360 @@
+//*******************************************************************
+//Author: Spencer E Reeves
+//Last Modified: 10-17-2026
+//
+//Purpose:
+//  Answers prefix and range queries over the words of a concordance without a
+//  sorted set. The words are kept in the order of their collation keys and in the
+//  order of their chars, as arrays of ints and longs, so a word costs a few
+//  primitives rather than a tree node.
+//
+//Design Decisions:
+//  Two orders - A prefix is matched on chars, and the words that begin with it
+//    are next to each other in the char order, so they are found with a binary
+//    search that never calls the collator. Ranges follow the collation order, in
+//    which the same words are spread out among their accented and capitalized
+//    relatives.
+//  Heads - The first four chars of every word are packed into a long, kept in char
+//    order. Most of a search compares those longs, which sit side by side in one
+//    array, and only the words that share a head with the string searched for
+//    are read from their entries.
+//  Minimum ranks - Every position of the char order holds the collation rank of
+//    its word, and a sparse table over blocks of those ranks gives the smallest
+//    rank of any range in constant time. A prefix query starts at the first word
+//    that matches in collation order and walks forward from there, telling the
+//    words that match by their position in the char order, and stops once it has
+//    enough words.
+//  Collation keys - The collator is slow next to the search itself, so a bound of
+//    a range that is a word of the concordance is found in the char order, and a
+//    collation key is only made for a bound that is not. The first bytes of the
+//    key of every word are packed into a long as well, kept in collation order,
+//    so the keys themselves are only compared between words that share a head.
+//  Updates - Words added after the index was built are sorted on their own and
+//    merged into both orders, rather than sorting every word again.
+//*******************************************************************
+package com.pkc;
+
+import java.text.CollationKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map.Entry;
+
+final class WordIndex {
+
+    private static final int BLOCK_SIZE = 32;
+    private static final int HEAD_LENGTH = 4;
+
+    private final List<WordEntry> entries;
+    private int indexed = 0;
+    private int[] ids = new int[0];
+    private int[] ranks = new int[0];
+    private int[] positions = new int[0];
+    private long[] heads = new long[0];
+    private long[] keyHeads = new long[0];
+    private int[][] minimums = new int[0][];
+
+    /**
+     * Instantiates an empty index.
+     * @param entries - The entries of the words, where the entry of a word is at its id
+     */
+    WordIndex(List<WordEntry> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * @return - Whether every entry has been indexed
+     */
+    boolean isUpToDate() {
+        return entries.size() == indexed;
+    }
+
+    /**
+     * Adds the words whose entries were added since the last update. A word the
+     *   collator finds equal to one already indexed is left out, as a sorted set
+     *   would leave it out.
+     */
+    void update() {
+        int size = entries.size();
+        if (size == indexed) {
+            return;
+        }
+
+        Integer[] added = new Integer[size - indexed];
+        for (int i = 0; i < added.length; i++) {
+            added[i] = indexed + i;
+        }
+        Arrays.parallelSort(added, (o1, o2) -> {return key(o1).compareTo(key(o2));});
+
+        int[] sorted = new int[ids.length + added.length];
+        long[] keys = new long[sorted.length];
+        int count = 0;
+        for (int i = 0, j = 0; i < ids.length || j < added.length; ) {
+            boolean old = j == added.length || (i < ids.length && key(ids[i]).compareTo(key(added[j])) <= 0);
+            int id = old ? ids[i] : added[j];
+            if (count == 0 || key(sorted[count - 1]).compareTo(key(id)) != 0) {
+                keys[count] = old ? keyHeads[i] : head(key(id));
+                sorted[count++] = id;
+            }
+            if (old) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        sorted = Arrays.copyOf(sorted, count);
+        keys = Arrays.copyOf(keys, count);
+
+        List<Integer> kept = new ArrayList<>();
+        for (int id : sorted) {
+            if (id >= indexed) {
+                kept.add(id);
+            }
+        }
+        kept.sort((o1, o2) -> {return word(o1).compareTo(word(o2));});
+
+        int[] rankOf = new int[size];
+        for (int rank = 0; rank < sorted.length; rank++) {
+            rankOf[sorted[rank]] = rank;
+        }
+        int[] merged = new int[sorted.length];
+        int[] inverse = new int[sorted.length];
+        long[] packed = new long[sorted.length];
+        for (int i = 0, j = 0, n = 0; n < merged.length; n++) {
+            int id = (j == kept.size() || (i < ranks.length && word(ids[ranks[i]]).compareTo(word(kept.get(j))) < 0)) ? ids[ranks[i++]] : kept.get(j++);
+            merged[n] = rankOf[id];
+            inverse[rankOf[id]] = n;
+            packed[n] = head(word(id), (char) 0);
+        }
+
+        ids = sorted;
+        ranks = merged;
+        positions = inverse;
+        heads = packed;
+        indexed = size;
+        keyHeads = keys;
+        buildMinimums();
+    }
+
+    /**
+     * Lists the words that begin with a prefix.
+     * @param prefix - The chars every word must begin with
+     * @param limit - The most words to be listed
+     * @return - Up to limit entries, in alphabetic order
+     */
+    List<Entry<String, Integer>> withPrefix(String prefix, int limit) {
+        int first;
+        int low;
+        if (prefix.length() <= HEAD_LENGTH) {
+            first = search(heads, head(prefix, (char) 0), false, 0, heads.length);
+            low = search(heads, head(prefix, Character.MAX_VALUE), true, first, heads.length);
+        } else {
+            first = lowerBound(prefix);
+            low = first;
+            int high = search(heads, head(prefix, (char) 0), true, first, heads.length);
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (word(ids[ranks[middle]]).startsWith(prefix)) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+        }
+
+        int matches = low - first;
+        List<Entry<String, Integer>> result = new ArrayList<>(Math.min(limit, matches));
+        if (matches <= BLOCK_SIZE) {
+            int[] found = Arrays.copyOfRange(ranks, first, low);
+            Arrays.sort(found);
+            for (int i = 0; i < found.length && result.size() < limit; i++) {
+                result.add(entries.get(ids[found[i]]));
+            }
+            return result;
+        }
+
+        for (int rank = minimum(first, low); result.size() < Math.min(limit, matches); rank++) {
+            if (positions[rank] >= first && positions[rank] < low) {
+                result.add(entries.get(ids[rank]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Lists the words between two collation ranks, as found with rank.
+     * @param from - The rank of the first word
+     * @param to - The rank after the last word
+     * @return - The entries of the words in alphabetic order, or none if to is not after from
+     */
+    List<Entry<String, Integer>> between(int from, int to) {
+        List<Entry<String, Integer>> result = new ArrayList<>(Math.max(0, to - from));
+        for (int rank = from; rank < to; rank++) {
+            result.add(entries.get(ids[rank]));
+        }
+        return result;
+    }
+
+    /**
+     * Finds the collation rank of a word that is indexed.
+     * @param word - The word to be searched for
+     * @return - The number of indexed words that sort before it, or -1 if it is not indexed
+     */
+    int rank(String word) {
+        int position = lowerBound(word);
+        return (position < ranks.length && word(ids[ranks[position]]).equals(word)) ? ranks[position] : -1;
+    }
+
+    /**
+     * Finds the collation rank of any word.
+     * @param key - The collation key of the word
+     * @return - The number of indexed words that sort before it
+     */
+    int rank(CollationKey key) {
+        long head = head(key);
+        int low = search(keyHeads, head, false, 0, keyHeads.length);
+        int high = search(keyHeads, head, true, low, keyHeads.length);
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (key(ids[middle]).compareTo(key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds the first position of the char order whose word does not sort before a string.
+     * @param string - The string to be searched for
+     * @return - The position, or the number of indexed words if every word sorts before it
+     */
+    private int lowerBound(String string) {
+        long head = head(string, (char) 0);
+        int low = search(heads, head, false, 0, heads.length);
+        int high = search(heads, head, true, low, heads.length);
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (word(ids[ranks[middle]]).compareTo(string) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds the first head that is not below a head, or the first that is above it.
+     * @param heads - The heads, in order
+     * @param head - The head to be searched for
+     * @param above - Whether positions with an equal head are passed over
+     * @param low - The first position searched
+     * @param high - The position after the last searched
+     * @return - The position, or high if there is none
+     */
+    private static int search(long[] heads, long head, boolean above, int low, int high) {
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (heads[middle] < head || (above && heads[middle] == head)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds the smallest collation rank held by a range of the char order.
+     * @param from - The first position of the range
+     * @param to - The position after the last, more than from
+     * @return - The smallest rank
+     */
+    private int minimum(int from, int to) {
+        int min = Integer.MAX_VALUE;
+        int firstBlock = (from + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        int lastBlock = to / BLOCK_SIZE;
+        if (firstBlock >= lastBlock) {
+            for (int i = from; i < to; i++) {
+                min = Math.min(min, ranks[i]);
+            }
+            return min;
+        }
+
+        for (int i = from; i < firstBlock * BLOCK_SIZE; i++) {
+            min = Math.min(min, ranks[i]);
+        }
+        for (int i = lastBlock * BLOCK_SIZE; i < to; i++) {
+            min = Math.min(min, ranks[i]);
+        }
+        int level = 31 - Integer.numberOfLeadingZeros(lastBlock - firstBlock);
+        return Math.min(min, Math.min(minimums[level][firstBlock], minimums[level][lastBlock - (1 << level)]));
+    }
+
+    /**
+     * Builds the sparse table of minimum ranks. Level j holds the smallest rank of
+     *   every run of 2^j blocks.
+     */
+    private void buildMinimums() {
+        int blocks = ranks.length / BLOCK_SIZE;
+        int levels = (blocks == 0) ? 0 : 32 - Integer.numberOfLeadingZeros(blocks);
+        minimums = new int[levels][];
+        if (levels == 0) {
+            return;
+        }
+
+        minimums[0] = new int[blocks];
+        for (int block = 0; block < blocks; block++) {
+            int min = Integer.MAX_VALUE;
+            for (int i = block * BLOCK_SIZE; i < (block + 1) * BLOCK_SIZE; i++) {
+                min = Math.min(min, ranks[i]);
+            }
+            minimums[0][block] = min;
+        }
+        for (int level = 1; level < levels; level++) {
+            int[] previous = minimums[level - 1];
+            int[] current = minimums[level] = new int[blocks - (1 << level) + 1];
+            for (int i = 0; i < current.length; i++) {
+                current[i] = Math.min(previous[i], previous[i + (1 << (level - 1))]);
+            }
+        }
+    }
+
+    /**
+     * Packs the first chars of a string into a long that compares as they do.
+     * @param string - The string
+     * @param fill - The char taken in place of those past the end of the string
+     * @return - The head, with its sign flipped so heads compare as signed longs
+     */
+    private static long head(String string, char fill) {
+        long head = 0;
+        for (int i = 0; i < HEAD_LENGTH; i++) {
+            head = (head << 16) | (i < string.length() ? string.charAt(i) : fill);
+        }
+        return head ^ Long.MIN_VALUE;
+    }
+
+    /**
+     * Packs the first bytes of a collation key into a long that compares as the key does.
+     * @param key - The collation key
+     * @return - The head, with its sign flipped so heads compare as signed longs
+     */
+    private static long head(CollationKey key) {
+        byte[] bytes = key.toByteArray();
+        long head = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            head = (head << 8) | (i < bytes.length ? bytes[i] & 0xFF : 0);
+        }
+        return head ^ Long.MIN_VALUE;
+    }
+
+    private CollationKey key(int id) {
+        return entries.get(id).getCollationKey();
+    }
+
+    private String word(int id) {
+        return entries.get(id).getKey();
+    }
+}
@@ -0,0 +1,148 @@
+//*******************************************************************
+//Author: Spencer E Reeves
+//Last Modified: 10-17-2026
+//
+//Purpose:
+//  Keeps the words an external concordance has spilled out of its word table, as
+//  sorted runs in temporary files, so a vocabulary larger than the heap can still
+//  be counted exactly.
+//
+//Design Decisions:
+//  Runs - Every run is a WordFile, sorted by collation key and front coded like a
+//    saved concordance, so a run is written in one pass and read back without
+//    being loaded. A word can be in any number of runs, each holding the count it
+//    reached before its run was spilled.
+//  Lookups - The frequency of a word is the sum of its counts in every run, each
+//    found with the block search of its file, so a lookup never merges the runs.
+//    Every run keeps a WordFilter of its words, built while it was written, so
+//    the runs that can not hold a word are skipped without being searched.
+//  Compaction - The runs are merged into one, as the partials of save are, the
+//    first time every word is needed in order. Later lookups and listings then read
+//    a single file, until more words are spilled. Once MAX_RUNS runs have been
+//    spilled they are merged as well, so a lookup never searches more than that
+//    many files, at the cost of rewriting the words spilled so far once every
+//    MAX_RUNS - 1 spills.
+//  Deleting runs - A run is deleted as soon as it is merged or cleared, and one
+//    that can not be deleted yet is tried again on the next clear. Runs written to
+//    the default temporary directory go in a directory of their own, which is the
+//    only path left to be deleted when the JVM exits, so spilling again and again
+//    never grows the JVM's list of files to delete.
+//*******************************************************************
+package com.pkc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+final class WordRuns {
+
+    private static final int MAX_RUNS = 16;
+
+    private final int maxWords;
+    private final Path directory;
+    private final List<WordFile> runs = new ArrayList<>();
+    private final List<Path> paths = new ArrayList<>();
+    private final List<Path> undeleted = new ArrayList<>();
+    private Path spill;
+
+    /**
+     * Instantiates an empty list of runs.
+     * @param maxWords - The number of distinct words the word table may hold before it is spilled
+     * @param directory - The directory the runs are written in, or null for the default temporary directory
+     */
+    WordRuns(int maxWords, Path directory) {
+        if (maxWords < 1) {
+            throw new IllegalArgumentException("At least one word must be held in memory: " + maxWords);
+        }
+        this.maxWords = maxWords;
+        this.directory = directory;
+    }
+
+    /**
+     * @return - The number of distinct words the word table may hold before it is spilled
+     */
+    int getMaxWords() {
+        return maxWords;
+    }
+
+    /**
+     * @return - Whether no words have been spilled
+     */
+    boolean isEmpty() {
+        return runs.isEmpty();
+    }
+
+    /**
+     * Creates the file for a new run.
+     * @return - The path of the empty file
+     * @throws IOException
+     */
+    Path create() throws IOException {
+        if (directory != null) {
+            return Files.createTempFile(directory, "concordance", ".run");
+        }
+        if (spill == null) {
+            spill = Files.createTempDirectory("concordance");
+            spill.toFile().deleteOnExit();
+        }
+        return Files.createTempFile(spill, "concordance", ".run");
+    }
+
+    /**
+     * Adds a run once it has been written, merging the runs if there are too many.
+     * @param run - The path of a file returned by create, written by a WordFile.Writer
+     * @param filter - The filter built by that writer
+     * @param ignoreCase - Whether case was ignored when the words were read
+     * @throws IOException
+     */
+    void add(Path run, WordFilter filter, boolean ignoreCase) throws IOException {
+        runs.add(WordFile.open(run, filter));
+        paths.add(run);
+        if (runs.size() >= MAX_RUNS) {
+            compact(ignoreCase);
+        }
+    }
+
+    /**
+     * Finds the count of a word across every run.
+     * @param word - The word to be searched for, already lowercased if case is ignored
+     * @return - The sum of its counts, or 0 if no run holds it
+     */
+    long frequency(String word) {
+        long count = 0;
+        for (WordFile run : runs) {
+            count += run.frequency(word);
+        }
+        return count;
+    }
+
+    /**
+     * Merges the runs into one, unless there is only one already.
+     * @param ignoreCase - Whether case was ignored when the words were read
+     * @return - The only run left, or null if there are none
+     * @throws IOException
+     */
+    WordFile compact(boolean ignoreCase) throws IOException {
+        if (runs.size() > 1) {
+            Path merged = create();
+            WordFilter filter = WordFile.merge(runs, merged, ignoreCase);
+            clear();
+            runs.add(WordFile.open(merged, filter));
+            paths.add(merged);
+        }
+        return runs.isEmpty() ? null : runs.get(0);
+    }
+
+    /**
+     * Forgets every run and deletes its file. A file that can not be deleted yet,
+     *   such as one still mapped on Windows, is deleted by a later call.
+     */
+    void clear() {
+        undeleted.addAll(paths);
+        undeleted.removeIf(run -> run.toFile().delete() || !run.toFile().exists());
+        runs.clear();
+        paths.clear();
+    }
+}
@@ -0,0 +1,330 @@
+//*******************************************************************
+//Author: Spencer E Reeves
+//Last Modified: 10-17-2026
+//
+//Purpose:
+//  Counts words in a table built for that single purpose. Every distinct word is
+//  given a dense id, its characters are appended to one shared char arena, and
+//  its count is kept in an int array, so adding a word takes a single probe and
+//  never boxes the count.
+//
+//Design Decisions:
+//  Slots - Each slot of the open addressing table is a long holding the hash of
+//    the word in the high half and its id + 1 in the low half. Most probes that
+//    miss are rejected on the hash without touching the arena.
+//  Change tracking - Once trackChanges is called the table remembers the ids whose
+//    count changed, so sorted views of the words can be brought up to date without
+//    looking at the words that did not change.
+//  Memory - A distinct word costs its characters in the arena, an offset, a count
+//    and at most four slots worth of longs, roughly a third of what a HashMap
+//    node, String, char array and Integer cost for the same word.
+//*******************************************************************
+package com.pkc;
+
+import java.util.Arrays;
+
+final class WordTable implements WordTokenizer.Sink {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private long[] slots;
+    private int[] offsets;
+    private int[] counts;
+    private char[] arena;
+    private int size;
+    private long resizes;
+    private long[] changed;
+    private int[] changes;
+    private int changeCount;
+
+    /**
+     * Instantiates an empty table.
+     */
+    WordTable() {
+        clear();
+    }
+
+    /**
+     * Counts one occurrence of a word found by a tokenizer.
+     * @param chars - Buffer holding the word, starting at index 0
+     * @param length - The number of chars in the word
+     * @param hash - The hash of the word, equal to String.hashCode()
+     */
+    @Override
+    public void word(char[] chars, int length, int hash) {
+        add(chars, 0, length, hash, 1);
+    }
+
+    /**
+     * Adds to the count of a word, inserting the word if it is not in the table.
+     * @param chars - Buffer holding the word
+     * @param offset - The index of the first char of the word
+     * @param length - The number of chars in the word
+     * @param hash - The hash of the word, equal to String.hashCode()
+     * @param count - The number to be added to the count of the word
+     * @return - The id of the word
+     */
+    int add(char[] chars, int offset, int length, int hash, int count) {
+        int mask = slots.length - 1;
+        int slot = mix(hash) & mask;
+
+        long entry;
+        while ((entry = slots[slot]) != 0) {
+            if ((int) (entry >>> 32) == hash) {
+                int id = (int) entry - 1;
+                if (matches(id, chars, offset, length)) {
+                    counts[id] += count;
+                    if (changed != null) {
+                        markChanged(id);
+                    }
+                    return id;
+                }
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int id = size++;
+        if (size == counts.length) {
+            offsets = Arrays.copyOf(offsets, counts.length * 2 + 1);
+            counts = Arrays.copyOf(counts, counts.length * 2);
+            if (changed != null) {
+                changed = Arrays.copyOf(changed, (counts.length + 63) >>> 6);
+            }
+        }
+        int start = offsets[id];
+        if (length > arena.length - start) {
+            if (length > Integer.MAX_VALUE - 8 - start) {
+                throw new IllegalStateException("Word table can not hold more characters: " + start);
+            }
+            arena = Arrays.copyOf(arena, (int) Math.min(Integer.MAX_VALUE - 8, Math.max((long) arena.length * 2, (long) start + length)));
+        }
+        System.arraycopy(chars, offset, arena, start, length);
+        offsets[id + 1] = start + length;
+        counts[id] = count;
+
+        slots[slot] = ((long) hash << 32) | (id + 1);
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    /**
+     * Adds every word and count of another table to this table.
+     * @param other - The table to be added
+     */
+    void addAll(WordTable other) {
+        for (int id = 0; id < other.size; id++) {
+            int start = other.offsets[id];
+            int length = other.offsets[id + 1] - start;
+            add(other.arena, start, length, hash(other.arena, start, length), other.counts[id]);
+        }
+    }
+
+    /**
+     * Finds the id of a word.
+     * @param word - The word to be searched for
+     * @return - The id of the word, or -1 if it is not in the table
+     */
+    int find(String word) {
+        int hash = word.hashCode();
+        int mask = slots.length - 1;
+        int slot = mix(hash) & mask;
+
+        long entry;
+        while ((entry = slots[slot]) != 0) {
+            if ((int) (entry >>> 32) == hash) {
+                int id = (int) entry - 1;
+                if (matches(id, word)) {
+                    return id;
+                }
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * @return - The number of distinct words in the table
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return - The number of times the slots have been rehashed into a larger
+     *   array, counted since the table was created
+     */
+    long resizes() {
+        return resizes;
+    }
+
+    /**
+     * @param id - The id of a word
+     * @return - The number of times the word has been counted
+     */
+    int count(int id) {
+        return counts[id];
+    }
+
+    /**
+     * @param id - The id of a word
+     * @return - A new String holding the word
+     */
+    String word(int id) {
+        return new String(arena, offsets[id], offsets[id + 1] - offsets[id]);
+    }
+
+    /**
+     * Starts remembering the ids of the words whose count changes, if the table
+     *   is not doing so already.
+     */
+    void trackChanges() {
+        if (changed == null) {
+            changed = new long[(counts.length + 63) >>> 6];
+            changes = new int[64];
+            changeCount = 0;
+        }
+    }
+
+    /**
+     * @return - The number of words whose count changed since the last call to
+     *   clearChanges, while changes were being tracked
+     */
+    int changeCount() {
+        return changeCount;
+    }
+
+    /**
+     * @param index - A number from 0 to changeCount() - 1
+     * @return - The id of a word whose count changed
+     */
+    int change(int index) {
+        return changes[index];
+    }
+
+    /**
+     * Forgets the words whose count changed, while still tracking changes.
+     */
+    void clearChanges() {
+        for (int i = 0; i < changeCount; i++) {
+            changed[changes[i] >>> 6] = 0;
+        }
+        changeCount = 0;
+    }
+
+    /**
+     * Removes every word from the table and releases its storage. Changes are no
+     *   longer tracked.
+     */
+    void clear() {
+        slots = new long[INITIAL_CAPACITY];
+        offsets = new int[INITIAL_CAPACITY / 2 + 1];
+        counts = new int[INITIAL_CAPACITY / 2];
+        arena = new char[INITIAL_CAPACITY * 4];
+        size = 0;
+        changed = null;
+        changes = null;
+        changeCount = 0;
+    }
+
+    /**
+     * Remembers that the count of a word changed.
+     * @param id - The id of the word
+     */
+    private void markChanged(int id) {
+        long bit = 1L << id;
+        if ((changed[id >>> 6] & bit) == 0) {
+            changed[id >>> 6] |= bit;
+            if (changeCount == changes.length) {
+                changes = Arrays.copyOf(changes, changeCount * 2);
+            }
+            changes[changeCount++] = id;
+        }
+    }
+
+    /**
+     * Tests whether the word with an id holds the given characters.
+     * @param id - The id of the word in the table
+     * @param chars - Buffer holding the characters
+     * @param offset - The index of the first character
+     * @param length - The number of characters
+     * @return - true if they are equal
+     */
+    private boolean matches(int id, char[] chars, int offset, int length) {
+        int start = offsets[id];
+        if (offsets[id + 1] - start != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (arena[start + i] != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tests whether the word with an id is equal to a String.
+     * @param id - The id of the word in the table
+     * @param word - The String to be compared
+     * @return - true if they are equal
+     */
+    private boolean matches(int id, String word) {
+        int start = offsets[id];
+        if (offsets[id + 1] - start != word.length()) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (arena[start + i] != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Computes the hash of a range of characters the way String.hashCode() does.
+     * @param chars - Buffer holding the characters
+     * @param offset - The index of the first character
+     * @param length - The number of characters
+     * @return - The hash
+     */
+    static int hash(char[] chars, int offset, int length) {
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + chars[offset + i];
+        }
+        return hash;
+    }
+
+    /**
+     * Spreads the high bits of a hash into the low bits used to pick a slot.
+     * @param hash - The hash of a word
+     * @return - The mixed hash
+     */
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Doubles the number of slots and reinserts every word.
+     */
+    private void rehash() {
+        long[] old = slots;
+        slots = new long[old.length * 2];
+        resizes++;
+
+        int mask = slots.length - 1;
+        for (long entry : old) {
+            if (entry != 0) {
+                int slot = mix((int) (entry >>> 32)) & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = entry;
+            }
+        }
+    }
+}
@@ -0,0 +1,448 @@
+//*******************************************************************
+//Author: Spencer E Reeves
+//Last Modified: 10-17-2026
+//
+//Purpose:
+//  Splits unicode text into words without allocating per character or per word.
+//  Characters, or UTF-8 encoded bytes, are scanned from a caller supplied buffer,
+//  the word being built is kept in a reusable char array, and each finished word
+//  is handed to a Sink together with its hash so the sink can look it up without
+//  creating a String.
+//
+//Design Decisions:
+//  Word hash - The hash is computed exactly as String.hashCode() computes it, so
+//    a sink can look up a String it was given with the hash the String caches.
+//    It is updated as each char is added, so a word is only passed over once.
+//  Case folding - Each char is classified and lowercased for the locale of the
+//    tokenizer with one lookup in a Letters table as it is added to the word. The
+//    few letters whose lowercase depends on the letters around them, or is not a
+//    single char, are added as they are and the word is then lowercased with
+//    String.toLowerCase(Locale), so the result always matches it.
+//  ASCII - Chars and bytes below 0x80 are looked up straight away, without the
+//    checks for surrogates and multibyte sequences the other code points need.
+//  UTF-8 decoding - Bytes below 0x80 are taken as they are, only longer sequences
+//    are decoded. A malformed sequence ends the current word, which is exactly
+//    what the replacement character an InputStreamReader would produce does.
+//  Positions - The offset of a word is noted once, when its first letter is seen,
+//    so tracking positions costs a store per word rather than a count per char.
+//    Offsets are only meaningful when the tokenizer scans chars.
+//  Counters - The chars and bytes scanned are counted once per call, and words
+//    once per word. Code points are found by subtracting the chars or bytes
+//    beyond the first of every surrogate pair and multibyte sequence, which are
+//    only counted on the paths that decode them, so plain ASCII text pays nothing
+//    for the count.
+//*******************************************************************
+package com.pkc;
+
+import java.nio.ByteBuffer;
+import java.util.Locale;
+
+final class WordTokenizer {
+
+    /**
+     * Receives the words found by a tokenizer.
+     */
+    interface Sink {
+
+        /**
+         * Called once for every word in the text. The characters are only valid
+         *   for the duration of the call.
+         * @param chars - Buffer holding the word, starting at index 0
+         * @param length - The number of chars in the word
+         * @param hash - The hash of the word, equal to String.hashCode()
+         */
+        void word(char[] chars, int length, int hash);
+
+        /**
+         * Called instead of word(char[], int, int) by a positional tokenizer.
+         * @param chars - Buffer holding the word, starting at index 0
+         * @param length - The number of chars in the word
+         * @param hash - The hash of the word, equal to String.hashCode()
+         * @param offset - The offset of the first char of the word in the text
+         */
+        default void word(char[] chars, int length, int hash, long offset) {
+            word(chars, length, hash);
+        }
+    }
+
+    private final Locale locale;
+    private final boolean ignoreCase;
+    private final char[] letters;
+    private final boolean positional;
+    private final Sink sink;
+
+    private char[] word = new char[64];
+    private int length = 0;
+    private int hash = 0;
+    private boolean special = false;
+    private char pendingHigh = 0;
+    private final byte[] pendingBytes = new byte[4];
+    private final ByteBuffer pendingBuffer = ByteBuffer.wrap(pendingBytes);
+    private int pendingLength = 0;
+    private long scanned = 0;
+    private long bytesScanned = 0;
+    private long extraUnits = 0;
+    private long tokens = 0;
+    private long origin = 0;
+    private long start = 0;
+
+    /**
+     * Instantiates a new tokenizer.
+     * @param locale - The locale the words are lowercased for
+     * @param ignoreCase - boolean for if the words should be lowercased
+     * @param sink - The receiver of every word found
+     */
+    WordTokenizer(Locale locale, boolean ignoreCase, Sink sink) {
+        this(locale, ignoreCase, false, sink);
+    }
+
+    /**
+     * Instantiates a new tokenizer that can hand the offset of every word to its sink.
+     * @param locale - The locale the words are lowercased for
+     * @param ignoreCase - boolean for if the words should be lowercased
+     * @param positional - boolean for if the sink is given the offset of every word
+     * @param sink - The receiver of every word found
+     */
+    WordTokenizer(Locale locale, boolean ignoreCase, boolean positional, Sink sink) {
+        this.locale = locale;
+        this.ignoreCase = ignoreCase;
+        this.letters = Letters.table(locale, ignoreCase);
+        this.positional = positional;
+        this.sink = sink;
+    }
+
+    /**
+     * Scans a range of characters. A word or surrogate pair cut off at the end of
+     *   the range is carried over to the next call, while a UTF-8 sequence cut off
+     *   by a previous call to scan bytes is malformed.
+     * @param chars - The characters to be scanned
+     * @param offset - The index of the first character
+     * @param count - The number of characters to be scanned
+     */
+    void scan(char[] chars, int offset, int count) {
+        int end = offset + count;
+        int i = offset;
+        origin = scanned - offset;
+        scanned += count;
+
+        if (pendingLength != 0) {
+            pendingLength = 0;
+            flush();
+        }
+
+        if (pendingHigh != 0 && i < end) {
+            char high = pendingHigh;
+            pendingHigh = 0;
+            if (Character.isLowSurrogate(chars[i])) {
+                extraUnits++;
+                accept(Character.toCodePoint(high, chars[i++]), offset - 1);
+            } else {
+                accept(high, offset - 1);
+            }
+        }
+
+        char[] letters = this.letters;
+        while (i < end) {
+            char c = chars[i++];
+            if (c < 0x80) {
+                char letter = letters[c];
+                if (letter == 0) {
+                    flush();
+                } else if (letter == Letters.SPECIAL) {
+                    accept(c, i - 1);
+                } else {
+                    if (length == 0) {
+                        start = origin + i - 1;
+                    }
+                    append(letter);
+                }
+            } else if (Character.isHighSurrogate(c)) {
+                if (i == end) {
+                    pendingHigh = c;
+                } else if (Character.isLowSurrogate(chars[i])) {
+                    extraUnits++;
+                    accept(Character.toCodePoint(c, chars[i++]), i - 2);
+                } else {
+                    accept(c, i - 1);
+                }
+            } else {
+                accept(c, i - 1);
+            }
+        }
+    }
+
+    /**
+     * Scans the remaining UTF-8 encoded bytes of a buffer, leaving its position at
+     *   its limit. A word or byte sequence cut off at the end of the buffer is
+     *   carried over to the next call, while a surrogate pair cut off by a previous
+     *   call to scan characters is unpaired.
+     * @param bytes - The bytes to be scanned
+     */
+    void scan(ByteBuffer bytes) {
+        int end = bytes.limit();
+        int i = bytes.position();
+        bytesScanned += end - i;
+
+        if (pendingHigh != 0) {
+            char high = pendingHigh;
+            pendingHigh = 0;
+            accept(high, i);
+        }
+
+        while (pendingLength != 0 && i < end) {
+            byte b = bytes.get(i);
+            if ((b & 0xC0) != 0x80) {
+                pendingLength = 0;
+                flush();
+            } else {
+                pendingBytes[pendingLength++] = b;
+                i++;
+                int length = sequenceLength(pendingBytes[0] & 0xFF);
+                if (pendingLength == length) {
+                    pendingLength = 0;
+                    int cp = decode(pendingBuffer, 0, length);
+                    if (cp < 0) {
+                        flush();
+                    } else {
+                        extraUnits += length - 1;
+                        accept(cp, i);
+                    }
+                }
+            }
+        }
+
+        char[] letters = this.letters;
+        while (i < end) {
+            byte b = bytes.get(i);
+            if (b >= 0) {
+                char letter = letters[b];
+                if (letter == 0) {
+                    flush();
+                } else if (letter == Letters.SPECIAL) {
+                    accept(b, i);
+                } else {
+                    if (length == 0) {
+                        start = origin + i;
+                    }
+                    append(letter);
+                }
+                i++;
+                continue;
+            }
+
+            int length = sequenceLength(b & 0xFF);
+            if (length < 0) {
+                flush();
+                i++;
+            } else if (length > end - i) {
+                int j = i + 1;
+                while (j < end && (bytes.get(j) & 0xC0) == 0x80) {
+                    j++;
+                }
+                if (j < end) {
+                    flush();
+                    i++;
+                } else {
+                    while (i < end) {
+                        pendingBytes[pendingLength++] = bytes.get(i++);
+                    }
+                }
+            } else {
+                int cp = decode(bytes, i, length);
+                if (cp < 0) {
+                    flush();
+                    i++;
+                } else {
+                    extraUnits += length - 1;
+                    accept(cp, i);
+                    i += length;
+                }
+            }
+        }
+        bytes.position(end);
+    }
+
+    /**
+     * Ends the text, handing the last word to the sink if there is one.
+     */
+    void finish() {
+        if (pendingLength != 0) {
+            pendingLength = 0;
+            flush();
+        }
+        if (pendingHigh != 0) {
+            char high = pendingHigh;
+            pendingHigh = 0;
+            accept(high, 0);
+        }
+        flush();
+    }
+
+    /**
+     * @return - The number of chars scanned
+     */
+    long chars() {
+        return scanned;
+    }
+
+    /**
+     * @return - The number of bytes scanned
+     */
+    long bytes() {
+        return bytesScanned;
+    }
+
+    /**
+     * @return - The number of code points scanned, where every malformed byte
+     *   counts as one
+     */
+    long codePoints() {
+        return scanned + bytesScanned - extraUnits;
+    }
+
+    /**
+     * @return - The number of words handed to the sink
+     */
+    long tokens() {
+        return tokens;
+    }
+
+    /**
+     * Adds a code point to the word being built, lowercased if case is ignored,
+     *   or ends the word if the code point is not alphabetic.
+     * @param cp - The code point to be added
+     * @param index - The index of the code point in the buffer being scanned
+     */
+    private void accept(int cp, int index) {
+        if (cp < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+            char letter = letters[cp];
+            if (letter == 0) {
+                flush();
+                return;
+            }
+            if (length == 0) {
+                start = origin + index;
+            }
+            if (letter == Letters.SPECIAL) {
+                special = true;
+                append((char) cp);
+            } else {
+                append(letter);
+            }
+            return;
+        }
+
+        if (!Character.isAlphabetic(cp)) {
+            flush();
+            return;
+        }
+        if (length == 0) {
+            start = origin + index;
+        }
+        int letter = ignoreCase ? Character.toLowerCase(cp) : cp;
+        if (Character.isBmpCodePoint(letter)) {
+            append((char) letter);
+        } else {
+            append(Character.highSurrogate(letter));
+            append(Character.lowSurrogate(letter));
+        }
+    }
+
+    /**
+     * Adds a char to the word being built and to its hash.
+     * @param c - The char to be added
+     */
+    private void append(char c) {
+        if (length == word.length) {
+            grow();
+        }
+        word[length++] = c;
+        hash = 31 * hash + c;
+    }
+
+    /**
+     * Hands the word being built to the sink, if there is one.
+     */
+    private void flush() {
+        if (length == 0) {
+            return;
+        }
+
+        if (special) {
+            String lower = new String(word, 0, length).toLowerCase(locale);
+            special = false;
+            length = 0;
+            hash = 0;
+            for (int i = 0; i < lower.length(); i++) {
+                append(lower.charAt(i));
+            }
+        }
+
+        tokens++;
+        if (positional) {
+            sink.word(word, length, hash, start);
+        } else {
+            sink.word(word, length, hash);
+        }
+        length = 0;
+        hash = 0;
+    }
+
+    /**
+     * Doubles the size of the word buffer.
+     */
+    private void grow() {
+        char[] larger = new char[word.length * 2];
+        System.arraycopy(word, 0, larger, 0, length);
+        word = larger;
+    }
+
+    /**
+     * Finds the number of bytes a UTF-8 sequence is made of from its first byte.
+     * @param lead - The first byte of the sequence, as an unsigned value
+     * @return - The length of the sequence, or -1 if the byte can not start one
+     */
+    static int sequenceLength(int lead) {
+        if (lead < 0x80) {
+            return 1;
+        } else if (lead < 0xC2) {
+            return -1;
+        } else if (lead < 0xE0) {
+            return 2;
+        } else if (lead < 0xF0) {
+            return 3;
+        } else if (lead < 0xF5) {
+            return 4;
+        }
+        return -1;
+    }
+
+    /**
+     * Decodes a single UTF-8 encoded code point.
+     * @param bytes - The buffer holding the encoded code point
+     * @param index - The offset of the first byte of the code point
+     * @param length - The length of the sequence, as given by sequenceLength
+     * @return - The code point, or -1 if the bytes are not valid UTF-8
+     */
+    static int decode(ByteBuffer bytes, int index, int length) {
+        int lead = bytes.get(index) & 0xFF;
+        if (length == 1) {
+            return lead;
+        }
+
+        int cp = lead & (0xFF >>> (length + 1));
+        for (int i = 1; i < length; i++) {
+            int c = bytes.get(index + i);
+            if ((c & 0xC0) != 0x80) {
+                return -1;
+            }
+            cp = (cp << 6) | (c & 0x3F);
+        }
+
+        int min = length == 2 ? 0x80 : length == 3 ? 0x800 : 0x10000;
+        if (cp < min || cp > Character.MAX_CODE_POINT || (cp >= Character.MIN_SURROGATE && cp <= Character.MAX_SURROGATE)) {
+            return -1;
+        }
+        return cp;
+    }
+}
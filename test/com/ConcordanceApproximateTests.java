@@ -0,0 +1,213 @@
+//*******************************************************************
+//Author: Spencer E Reeves
+//Last Modified: 10-17-2026
+
+//Tests:
+//  estimateTest - Tests that every estimate is within the documented bound of the exact frequency.
+//  heavyHittersTest - Tests that the most frequent words are kept, in the order of the exact counts.
+//  boundedTest - Tests that a vocabulary far larger than the capacity keeps only the capacity.
+//  unsupportedTest - Tests that the operations needing every word fail.
+//*******************************************************************
+
+package com.pkc;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+
+public class ConcordanceApproximateTests {
+
+    public final static String BASE = System.getProperty("user.dir") + File.separator +
+                              "test" + File.separator + "sample_data" + File.separator ;
+    public final static File[] TEXT_FILES = {
+        new File (BASE + "english_test.txt"),
+        new File (BASE + "unicode_test.txt"),
+        new File (BASE + "count_test_x4.txt"),
+        new File (BASE + "multi_lang_test_1.txt"),
+        new File (BASE + "multi_lang_test_2.txt")};
+
+    private static final double EPSILON = 0.001;
+    private static final double DELTA = 0.01;
+
+    public ConcordanceApproximateTests() {
+        //TODO: Import and initialize logger
+    }
+
+    /**
+     * Test the estimates of getWordFrequency. The sample texts and a generated
+     * text are read by an exact and an approximate concordance. No estimate may be
+     * below the exact frequency, and no more than a share delta of the words may
+     * exceed it by more than the error bound.
+     * @throws java.io.IOException
+     */
+    @Test
+    public void estimateTest() throws IOException {
+        for (boolean ignoreCase : new boolean[] {false, true}) {
+            Concordance expected = new Concordance(Locale.US);
+            Concordance instance = Concordance.approximate(Locale.US, 100, EPSILON, DELTA);
+            for (File file : TEXT_FILES) {
+                expected.readText(new InputStreamReader(new FileInputStream(file), "UTF-8"), ignoreCase);
+                instance.readFile(file.toPath(), ignoreCase);
+            }
+            String text = zipf(20000, 500000, new Random(1));
+            expected.readText(new StringReader(text), ignoreCase);
+            instance.readText(new StringReader(text), ignoreCase);
+
+            long total = 0;
+            for (Entry<String, Integer> entry : expected.getWords(Concordance.Sort.ALPHABETIC, false)) {
+                total += entry.getValue();
+            }
+            assertTrue(instance.getErrorBound() <= Math.ceil(EPSILON * total));
+
+            int words = 0;
+            int misses = 0;
+            for (Entry<String, Integer> entry : expected.getWords(Concordance.Sort.ALPHABETIC, false)) {
+                int estimate = instance.getWordFrequency(entry.getKey());
+                assertTrue(estimate >= entry.getValue());
+                if (estimate - entry.getValue() > instance.getErrorBound()) {
+                    misses++;
+                }
+                words++;
+            }
+            assertTrue(misses <= DELTA * words);
+        }
+    }
+
+    /**
+     * Test the words kept as the most frequent. On a Zipfian text every word whose
+     * exact frequency is well above the error bound must be kept, and the kept
+     * words must be ordered as their exact counts are.
+     * @throws java.io.IOException
+     */
+    @Test
+    public void heavyHittersTest() throws IOException {
+        String text = zipf(50000, 1000000, new Random(2));
+        Concordance expected = new Concordance(Locale.US);
+        expected.readText(new StringReader(text), false);
+        Concordance instance = Concordance.approximate(Locale.US, 200, EPSILON, DELTA);
+        instance.readText(new StringReader(text), false);
+
+        Set<String> kept = new HashSet<>();
+        for (Entry<String, Integer> entry : instance.getWords(Concordance.Sort.FREQUENCY, false)) {
+            kept.add(entry.getKey());
+        }
+        assertTrue(kept.size() <= 200);
+
+        List<Entry<String, Integer>> top = expected.topK(200);
+        for (Entry<String, Integer> entry : top) {
+            if (entry.getValue() > 2 * instance.getErrorBound()) {
+                assertTrue(entry.getKey(), kept.contains(entry.getKey()));
+            }
+        }
+
+        List<Entry<String, Integer>> approximate = instance.topK(50);
+        for (int i = 1; i < approximate.size(); i++) {
+            assertTrue(expected.getWordFrequency(approximate.get(i - 1).getKey()) + instance.getErrorBound()
+                    >= expected.getWordFrequency(approximate.get(i).getKey()));
+        }
+        assertEquals(top.get(0).getKey(), approximate.get(0).getKey());
+    }
+
+    /**
+     * Test that memory stays bounded. A text of far more distinct words than the
+     * capacity keeps no more than the capacity, and a word repeated throughout is
+     * still among them.
+     * @throws java.io.IOException
+     */
+    @Test
+    public void boundedTest() throws IOException {
+        Concordance instance = Concordance.approximate(Locale.US, 50, EPSILON, DELTA);
+        Random random = new Random(3);
+        Concordance.Feed feed = instance.openFeed(true);
+        for (int i = 0; i < 200000; i++) {
+            feed.feed(Long.toString(random.nextLong() & Long.MAX_VALUE, 36).replaceAll("[0-9]", "") + " Zebra ");
+        }
+        feed.finish();
+
+        assertTrue(instance.getWords(Concordance.Sort.ALPHABETIC, false).size() <= 50);
+        assertEquals(instance.topK(1).get(0).getKey(), "zebra");
+        assertTrue(instance.getWordFrequency("ZEBRA") >= 200000);
+        assertTrue(instance.getWordFrequency("ZEBRA") <= 200000 + instance.getErrorBound());
+
+        instance.clear();
+        assertEquals(instance.getWordFrequency("zebra"), 0);
+        assertTrue(instance.getWords(Concordance.Sort.FREQUENCY, false).isEmpty());
+    }
+
+    /**
+     * Test that the operations needing every word fail on an approximate concordance.
+     * @throws java.io.IOException
+     */
+    @Test
+    public void unsupportedTest() throws IOException {
+        Concordance instance = Concordance.approximate(Locale.US, 10, EPSILON, DELTA);
+        instance.readText(new StringReader("Some words"), false);
+        File file = File.createTempFile("concordance", ".bin");
+
+        try {
+            List<Runnable> operations = new ArrayList<>();
+            operations.add(() -> instance.bottomK(1));
+            operations.add(() -> instance.wordsWithPrefix("w", 1));
+            operations.add(() -> instance.wordsBetween("a", "z"));
+            operations.add(() -> instance.merge(new Concordance(Locale.US)));
+            operations.add(() -> new Concordance(Locale.US).merge(instance));
+            operations.add(() -> {
+                try {
+                    instance.save(file.toPath());
+                } catch (IOException ex) {
+                    throw new RuntimeException(ex);
+                }
+            });
+            for (Runnable operation : operations) {
+                try {
+                    operation.run();
+                    fail("An operation needing every word succeeded.");
+                } catch (IllegalStateException ex) {
+                    //Expected
+                }
+            }
+        } finally {
+            Files.delete(file.toPath());
+        }
+    }
+
+    /**
+     * Generates a text of words drawn with a Zipfian distribution, one in five
+     * capitalized.
+     * @param vocabulary - The number of distinct words
+     * @param words - The number of words in the text
+     * @param random - The source of randomness
+     * @return - The text
+     */
+    private static String zipf(int vocabulary, int words, Random random) {
+        double[] cumulative = new double[vocabulary];
+        double total = 0;
+        for (int i = 0; i < vocabulary; i++) {
+            total += 1.0 / (i + 1);
+            cumulative[i] = total;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            int index = java.util.Arrays.binarySearch(cumulative, random.nextDouble() * total);
+            String word = Integer.toString(Math.min(vocabulary - 1, index < 0 ? -index - 1 : index), 26)
+                    .chars().mapToObj(c -> String.valueOf((char) (Character.isDigit(c) ? 'a' + c - '0' : c + 10)))
+                    .reduce("w", String::concat);
+            sb.append(random.nextInt(5) == 0 ? word.toUpperCase() : word).append(' ');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,212 @@
+//*******************************************************************
+//Author: Spencer E Reeves
+//Last Modified: 10-17-2026
+
+//Tests:
+//  countTest - Tests that the words and frequencies match an in memory concordance.
+//  queryTest - Tests topK, bottomK, wordsWithPrefix and wordsBetween over spilled words.
+//  saveMergeTest - Tests saving and merging concordances that spilled words.
+//  clearTest - Tests that the spilled words are deleted.
+//*******************************************************************
+
+package com.pkc;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+
+public class ConcordanceExternalTests {
+
+    public final static String BASE = System.getProperty("user.dir") + File.separator +
+                              "test" + File.separator + "sample_data" + File.separator ;
+    public final static File[] TEXT_FILES = {
+        new File (BASE + "english_test.txt"),
+        new File (BASE + "unicode_test.txt"),
+        new File (BASE + "count_test_x4.txt"),
+        new File (BASE + "multi_lang_test_1.txt"),
+        new File (BASE + "multi_lang_test_2.txt")};
+
+    private static final int MAX_WORDS = 64;
+
+    public ConcordanceExternalTests() {
+        //TODO: Import and initialize logger
+    }
+
+    /**
+     * Test the words and frequencies of an external concordance. The sample texts
+     * and a generated text are read by a concordance that spills every 64 words
+     * and by one that keeps every word in memory. The frequencies must match
+     * before and after the spilled words are merged, and so must the sorted sets.
+     * @throws java.io.IOException
+     */
+    @Test
+    public void countTest() throws IOException {
+        for (boolean ignoreCase : new boolean[] {false, true}) {
+            Concordance expected = new Concordance(Locale.US);
+            Concordance instance = Concordance.external(Locale.US, MAX_WORDS, null);
+            read(expected, instance, ignoreCase);
+
+            for (Entry<String, Integer> entry : expected.getWords(Concordance.Sort.ALPHABETIC, false)) {
+                assertEquals(entry.getKey(), (int) entry.getValue(), instance.getWordFrequency(entry.getKey()));
+            }
+            assertEquals(instance.getWordFrequency("notaword"), 0);
+
+            assertEquals(list(expected.getWords(Concordance.Sort.ALPHABETIC, false)), list(instance.getWords(Concordance.Sort.ALPHABETIC, false)));
+            assertEquals(list(expected.getWords(Concordance.Sort.ALPHABETIC, true)), list(instance.getWords(Concordance.Sort.ALPHABETIC, true)));
+            assertEquals(list(expected.getWords(Concordance.Sort.FREQUENCY, false)), list(instance.getWords(Concordance.Sort.FREQUENCY, false)));
+            assertEquals(list(expected.getWords(Concordance.Sort.FREQUENCY, true)), list(instance.getWords(Concordance.Sort.FREQUENCY, true)));
+            for (Entry<String, Integer> entry : expected.getWords(Concordance.Sort.ALPHABETIC, false)) {
+                assertEquals(entry.getKey(), (int) entry.getValue(), instance.getWordFrequency(entry.getKey()));
+            }
+
+            String text = "a few more words read after the sorted sets were merged ";
+            expected.readText(new StringReader(text), ignoreCase);
+            instance.readText(new StringReader(text), ignoreCase);
+            assertEquals(expected.getWordFrequency("words"), instance.getWordFrequency("words"));
+            assertEquals(list(expected.getWords(Concordance.Sort.ALPHABETIC, false)), list(instance.getWords(Concordance.Sort.ALPHABETIC, false)));
+        }
+    }
+
+    /**
+     * Test the queries of an external concordance against one kept in memory.
+     * @throws java.io.IOException
+     */
+    @Test
+    public void queryTest() throws IOException {
+        Concordance expected = new Concordance(Locale.US);
+        Concordance instance = Concordance.external(Locale.US, MAX_WORDS, null);
+        read(expected, instance, true);
+
+        for (int k : new int[] {0, 1, 10, 1000, Integer.MAX_VALUE}) {
+            assertEquals(expected.topK(k), instance.topK(k));
+            assertEquals(expected.bottomK(k), instance.bottomK(k));
+        }
+        for (String prefix : new String[] {"", "t", "th", "wq", "ü", "zzz"}) {
+            assertEquals(expected.wordsWithPrefix(prefix, 5), instance.wordsWithPrefix(prefix, 5));
+            assertEquals(expected.wordsWithPrefix(prefix, 1000), instance.wordsWithPrefix(prefix, 1000));
+        }
+        String[][] bounds = {{"a", "b"}, {"the", "tree"}, {"The", "w"}, {"z", "a"}, {"", "￿"}};
+        for (String[] bound : bounds) {
+            assertEquals(expected.wordsBetween(bound[0], bound[1]), instance.wordsBetween(bound[0], bound[1]));
+        }
+    }
+
+    /**
+     * Test saving an external concordance and merging one into another. The saved
+     * file must hold the words an in memory concordance would save.
+     * @throws java.io.IOException
+     */
+    @Test
+    public void saveMergeTest() throws IOException {
+        Concordance expected = new Concordance(Locale.US);
+        Concordance instance = Concordance.external(Locale.US, MAX_WORDS, null);
+        read(expected, instance, false);
+
+        Path file = Files.createTempFile("concordance", ".bin");
+        try {
+            instance.save(file);
+            Concordance loaded = Concordance.load(file);
+            assertEquals(list(expected.getWords(Concordance.Sort.ALPHABETIC, false)), list(loaded.getWords(Concordance.Sort.ALPHABETIC, false)));
+        } finally {
+            Files.delete(file);
+        }
+
+        Concordance merged = Concordance.external(Locale.US, MAX_WORDS, null);
+        merged.merge(instance);
+        merged.merge(expected);
+        Concordance twice = new Concordance(Locale.US);
+        twice.merge(expected);
+        twice.merge(instance);
+        for (Entry<String, Integer> entry : expected.getWords(Concordance.Sort.ALPHABETIC, false)) {
+            assertEquals(2 * entry.getValue(), merged.getWordFrequency(entry.getKey()));
+            assertEquals(2 * entry.getValue(), twice.getWordFrequency(entry.getKey()));
+        }
+        assertEquals(list(twice.getWords(Concordance.Sort.FREQUENCY, false)), list(merged.getWords(Concordance.Sort.FREQUENCY, false)));
+    }
+
+    /**
+     * Test that the spilled words are written to the given directory and deleted
+     * by clear.
+     * @throws java.io.IOException
+     */
+    @Test
+    public void clearTest() throws IOException {
+        Path directory = Files.createTempDirectory("concordance");
+        try {
+            Concordance instance = Concordance.external(Locale.US, MAX_WORDS, directory);
+            instance.readText(new StringReader(generate(5000, new Random(4))), false);
+            assertTrue(files(directory) > 0);
+            instance.getWords(Concordance.Sort.ALPHABETIC, false);
+            assertEquals(files(directory), 1);
+
+            instance.clear();
+            assertEquals(files(directory), 0);
+            assertTrue(instance.getWords(Concordance.Sort.ALPHABETIC, false).isEmpty());
+            assertEquals(instance.getWordFrequency("wa"), 0);
+        } finally {
+            Files.delete(directory);
+        }
+    }
+
+    /**
+     * Reads the sample texts and a generated text into two concordances, with
+     * the external one reading the files with readFile.
+     */
+    private static void read(Concordance expected, Concordance instance, boolean ignoreCase) throws IOException {
+        for (File file : TEXT_FILES) {
+            expected.readText(new InputStreamReader(new FileInputStream(file), "UTF-8"), ignoreCase);
+            instance.readFile(file.toPath(), ignoreCase, 4);
+        }
+        String text = generate(20000, new Random(1));
+        expected.readText(new StringReader(text), ignoreCase);
+        Concordance.Feed feed = instance.openFeed(ignoreCase);
+        feed.feed(text);
+        feed.finish();
+    }
+
+    private static List<Entry<String, Integer>> list(Iterable<Entry<String, Integer>> words) {
+        List<Entry<String, Integer>> result = new ArrayList<>();
+        for (Entry<String, Integer> entry : words) {
+            result.add(new SimpleImmutableEntry<>(entry));
+        }
+        return result;
+    }
+
+    private static long files(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    /**
+     * Generates a text of words drawn from a vocabulary of a few thousand, the
+     * lower ranks more often, one in five capitalized.
+     * @param words - The number of words in the text
+     * @param random - The source of randomness
+     * @return - The text
+     */
+    private static String generate(int words, Random random) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            String word = "w" + Integer.toString(random.nextInt(1 + random.nextInt(3000)), 26)
+                    .chars().mapToObj(c -> String.valueOf((char) (Character.isDigit(c) ? 'a' + c - '0' : c + 10)))
+                    .reduce("", String::concat);
+            sb.append(random.nextInt(5) == 0 ? word.toUpperCase() : word).append(' ');
+        }
+        return sb.toString();
+    }
+}
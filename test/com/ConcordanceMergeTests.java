@@ -0,0 +1,227 @@
+//*******************************************************************
+//Author: Spencer E Reeves
+//Last Modified: 10-17-2026
+
+//Tests:
+//  mergeTest - Tests that concordances of parts of a text merge to the concordance of the whole.
+//  mismatchTest - Tests that concordances with other locales or case settings are not merged.
+//  multiProcessTest - Tests that partials saved by several processes merge to the single process result.
+//*******************************************************************
+
+package com.pkc;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+
+public class ConcordanceMergeTests {
+
+    public final static String BASE = System.getProperty("user.dir") + File.separator +
+                              "test" + File.separator + "sample_data" + File.separator ;
+    public final static File[] TEXT_FILES = {
+        new File (BASE + "english_test.txt"),
+        new File (BASE + "unicode_test.txt"),
+        new File (BASE + "count_test_x4.txt"),
+        new File (BASE + "multi_lang_test_1.txt"),
+        new File (BASE + "multi_lang_test_2.txt")};
+
+    public ConcordanceMergeTests() {
+        //TODO: Import and initialize logger
+    }
+
+    /**
+     * Worker of multiProcessTest. Reads a text and saves its concordance as a partial.
+     * @param args - The text, the partial to be written and whether case is ignored
+     * @throws java.io.IOException
+     */
+    public static void main(String[] args) throws IOException {
+        Concordance concordance = new Concordance(Locale.US);
+        concordance.readFile(Paths.get(args[0]), Boolean.parseBoolean(args[1]));
+        concordance.save(Paths.get(args[2]));
+    }
+
+    /**
+     * Test merging concordances in one process. The sample texts are split into
+     * parts, each part is read by a concordance of its own, and the merged result
+     * is compared against a concordance that read every part. One of the parts is
+     * saved and loaded first, so a loaded concordance is merged as well.
+     * @throws java.io.IOException
+     */
+    @Test
+    public void mergeTest() throws IOException {
+        List<String> parts = split(5);
+        Path file = Files.createTempFile("concordance", ".bin");
+
+        try {
+            for (boolean ignoreCase : new boolean[] {false, true}) {
+                Concordance expected = new Concordance(Locale.US);
+                Concordance instance = new Concordance(Locale.US);
+                for (int i = 0; i < parts.size(); i++) {
+                    expected.readText(new StringReader(parts.get(i)), ignoreCase);
+
+                    Concordance part = new Concordance(Locale.US);
+                    part.readText(new StringReader(parts.get(i)), ignoreCase);
+                    if (i == 1) {
+                        part.save(file);
+                        part = Concordance.load(file);
+                    }
+                    instance.merge(part);
+                    if (i == 2) {
+                        instance.getWords(Concordance.Sort.FREQUENCY, false);
+                    }
+                }
+
+                assertEquals(new ArrayList<>(expected.getWords(Concordance.Sort.ALPHABETIC, false)),
+                             new ArrayList<>(instance.getWords(Concordance.Sort.ALPHABETIC, false)));
+                assertEquals(new ArrayList<>(expected.getWords(Concordance.Sort.FREQUENCY, false)),
+                             new ArrayList<>(instance.getWords(Concordance.Sort.FREQUENCY, false)));
+
+                instance.merge(new Concordance(Locale.US));
+                assertEquals(expected.getWords(Concordance.Sort.ALPHABETIC, false).size(),
+                             instance.getWords(Concordance.Sort.ALPHABETIC, false).size());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Test merging concordances that do not agree. A concordance for another
+     * locale, or one that read its text with another case setting, must not be
+     * merged, either in memory or as a partial.
+     * @throws java.io.IOException
+     */
+    @Test
+    public void mismatchTest() throws IOException {
+        Concordance instance = new Concordance(Locale.US);
+        instance.readText(new StringReader("Some words"), false);
+
+        Concordance french = new Concordance(Locale.FRENCH);
+        french.readText(new StringReader("Some words"), false);
+        Concordance ignored = new Concordance(Locale.US);
+        ignored.readText(new StringReader("Some words"), true);
+
+        for (Concordance other : new Concordance[] {french, ignored}) {
+            try {
+                instance.merge(other);
+                fail("A concordance that does not agree was merged.");
+            } catch (IllegalArgumentException ex) {
+                //Expected
+            }
+        }
+        assertEquals(instance.getWordFrequency("Some"), 1);
+
+        Path first = Files.createTempFile("concordance", ".bin");
+        Path second = Files.createTempFile("concordance", ".bin");
+        Path merged = Files.createTempFile("concordance", ".bin");
+        try {
+            instance.save(first);
+            ignored.save(second);
+            try {
+                Concordance.merge(Arrays.asList(first, second), merged);
+                fail("Partials that do not agree were merged.");
+            } catch (IllegalArgumentException ex) {
+                //Expected
+            }
+        } finally {
+            Files.delete(first);
+            Files.delete(second);
+            Files.delete(merged);
+        }
+    }
+
+    /**
+     * Test merging partials from several processes. The sample texts are split
+     * into parts, a worker process saves the concordance of each part, and the
+     * partials are merged in one pass. The loaded result is compared against a
+     * concordance that read every part in this process.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void multiProcessTest() throws Exception {
+        int workers = 4;
+        List<String> parts = split(workers);
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        Path directory = Files.createTempDirectory("concordance");
+
+        try {
+            for (boolean ignoreCase : new boolean[] {false, true}) {
+                Concordance expected = new Concordance(Locale.US);
+                List<Process> processes = new ArrayList<>();
+                List<Path> partials = new ArrayList<>();
+
+                for (int i = 0; i < workers; i++) {
+                    Path text = directory.resolve("part" + i + ".txt");
+                    Path partial = directory.resolve("part" + i + ".bin");
+                    Files.write(text, parts.get(i).getBytes(StandardCharsets.UTF_8));
+                    expected.readFile(text, ignoreCase);
+                    partials.add(partial);
+
+                    processes.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                            ConcordanceMergeTests.class.getName(), text.toString(), Boolean.toString(ignoreCase), partial.toString())
+                            .inheritIO().start());
+                }
+                for (Process process : processes) {
+                    assertTrue(process.waitFor(60, TimeUnit.SECONDS));
+                    assertEquals(process.exitValue(), 0);
+                }
+
+                Path merged = directory.resolve("merged.bin");
+                Concordance.merge(partials, merged);
+                Concordance instance = Concordance.load(merged);
+
+                assertEquals(new ArrayList<>(expected.getWords(Concordance.Sort.ALPHABETIC, false)),
+                             new ArrayList<>(instance.getWords(Concordance.Sort.ALPHABETIC, false)));
+                for (Entry<String, Integer> entry : expected.getWords(Concordance.Sort.ALPHABETIC, false)) {
+                    assertTrue(instance.getWordFrequency(entry.getKey()) == entry.getValue());
+                }
+                assertEquals(new ArrayList<>(expected.getWords(Concordance.Sort.FREQUENCY, false)),
+                             new ArrayList<>(instance.getWords(Concordance.Sort.FREQUENCY, false)));
+            }
+        } finally {
+            for (File file : directory.toFile().listFiles()) {
+                Files.delete(file.toPath());
+            }
+            Files.delete(directory);
+        }
+    }
+
+    /**
+     * Deals the lines of the sample texts into parts. No word spans two lines.
+     * @param count - The number of parts
+     * @return - The parts
+     * @throws IOException
+     */
+    private static List<String> split(int count) throws IOException {
+        List<StringBuilder> parts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            parts.add(new StringBuilder());
+        }
+
+        int line = 0;
+        for (File file : TEXT_FILES) {
+            for (String text : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+                parts.get(line++ % count).append(text).append('\n');
+            }
+        }
+
+        List<String> result = new ArrayList<>();
+        for (StringBuilder part : parts) {
+            result.add(part.toString());
+        }
+        return result;
+    }
+}
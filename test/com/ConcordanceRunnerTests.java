@@ -0,0 +1,167 @@
+//*******************************************************************
+//Author: Spencer E Reeves
+//Last Modified: 10-17-2026
+
+//Tests:
+//  filesTest - Tests expanding files, directories and globs into files, skipping missing paths.
+//  batchTest - Tests that files read on several threads match reading them one by one.
+//  formatTest - Tests the TSV, CSV and JSON lines output, in every order and with top k.
+//*******************************************************************
+
+package com.pkc;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+
+public class ConcordanceRunnerTests {
+
+    public final static String BASE = System.getProperty("user.dir") + File.separator +
+                              "test" + File.separator + "sample_data" + File.separator ;
+    public final static File[] TEXT_FILES = {
+        new File (BASE + "english_test.txt"),
+        new File (BASE + "unicode_test.txt"),
+        new File (BASE + "count_test_x1.txt"),
+        new File (BASE + "count_test_x4.txt"),
+        new File (BASE + "multi_lang_test_1.txt"),
+        new File (BASE + "multi_lang_test_2.txt")};
+
+    public ConcordanceRunnerTests() {
+        //TODO: Import and initialize logger
+    }
+
+    /**
+     * Test of files. A glob only matches below its directory, and a file named
+     * by more than one path is listed once. A missing file, directory or glob
+     * directory is counted as failed and the other paths are still listed.
+     * @throws java.io.IOException
+     */
+    @Test
+    public void filesTest() throws IOException {
+        AtomicInteger failed = new AtomicInteger();
+        List<Path> files = ConcordanceRunner.files(Arrays.asList(BASE + "count_test_x?.txt"), failed);
+        assertEquals(files, Arrays.asList(TEXT_FILES[2].toPath(), TEXT_FILES[3].toPath()));
+
+        files = ConcordanceRunner.files(Arrays.asList(BASE + "multi_lang_test_1.txt", BASE + "multi_*", BASE + "*.bin"), failed);
+        assertEquals(files, Arrays.asList(TEXT_FILES[4].toPath(), TEXT_FILES[5].toPath()));
+
+        files = ConcordanceRunner.files(Arrays.asList(BASE), failed);
+        for (File file : TEXT_FILES) {
+            assertTrue(file.toString(), files.contains(file.toPath()));
+        }
+        assertEquals(failed.get(), 0);
+
+        files = ConcordanceRunner.files(Arrays.asList(BASE + "missing.txt", BASE + "count_test_x1.txt", 
+                BASE + "missing" + File.separator + "*.txt", BASE + "count_test_x4.txt"), failed);
+        assertEquals(files, Arrays.asList(TEXT_FILES[2].toPath(), TEXT_FILES[3].toPath()));
+        assertEquals(failed.get(), 2);
+
+        StringWriter out = new StringWriter();
+        assertEquals(ConcordanceRunner.run(new String[] {BASE + "missing.txt", TEXT_FILES[2].toString()}, out), 1);
+        assertTrue(out.toString().split("\n").length > 1);
+    }
+
+    /**
+     * Test of read. The sample files read on one to eight threads must give the
+     * words and frequencies of reading them into one concordance in turn.
+     * @throws java.io.IOException
+     */
+    @Test
+    public void batchTest() throws IOException {
+        List<Path> files = new ArrayList<>();
+        Concordance expected = new Concordance(Locale.US);
+        for (File file : TEXT_FILES) {
+            files.add(file.toPath());
+            expected.readFile(file.toPath(), true);
+        }
+
+        for (int threads : new int[] {1, 2, 8}) {
+            AtomicInteger failed = new AtomicInteger();
+            Concordance instance = ConcordanceRunner.read(files, Locale.US, true, threads, failed);
+            assertEquals(failed.get(), 0);
+            assertEquals(list(expected.getWords(Concordance.Sort.FREQUENCY, false)),
+                    list(instance.getWords(Concordance.Sort.FREQUENCY, false)));
+        }
+
+        files.add(new File(BASE + "missing.txt").toPath());
+        AtomicInteger failed = new AtomicInteger();
+        Concordance instance = ConcordanceRunner.read(files, Locale.US, true, 4, failed);
+        assertEquals(failed.get(), 1);
+        assertEquals(list(expected.getWords(Concordance.Sort.ALPHABETIC, false)),
+                list(instance.getWords(Concordance.Sort.ALPHABETIC, false)));
+    }
+
+    /**
+     * Test of run. Every format must write a line per word in the order asked for,
+     * and top k must write the first k of those lines.
+     * @throws java.io.IOException
+     */
+    @Test
+    public void formatTest() throws IOException {
+        Concordance expected = new Concordance(Locale.US);
+        for (File file : TEXT_FILES) {
+            expected.readFile(file.toPath(), true);
+        }
+
+        for (Concordance.Sort order : Concordance.Sort.values()) {
+            for (boolean reversed : new boolean[] {false, true}) {
+                List<String> lines = new ArrayList<>();
+                for (Entry<String, Integer> entry : expected.getWords(order, reversed)) {
+                    lines.add(entry.getKey() + "\t" + entry.getValue());
+                }
+
+                List<String> args = new ArrayList<>(Arrays.asList("--locale", "en-US", "--sort", order.name().toLowerCase(Locale.ROOT)));
+                if (reversed) {
+                    args.add("--reversed");
+                }
+                args.add(BASE + "*_test*.txt");
+                assertEquals(lines, run(args));
+
+                args.add(0, "--top");
+                args.add(1, "10");
+                assertEquals(lines.subList(0, 10), run(args));
+            }
+        }
+
+        List<String> csv = run(Arrays.asList("--locale", "en-US", "--format", "csv", "--top", "1", TEXT_FILES[2].toString()));
+        Concordance runic = new Concordance(Locale.US);
+        runic.readFile(TEXT_FILES[2].toPath(), true);
+        Entry<String, Integer> first = runic.getWords(Concordance.Sort.ALPHABETIC, false).first();
+        assertEquals(csv, Arrays.asList(first.getKey() + "," + first.getValue()));
+        List<String> json = run(Arrays.asList("--locale", "en-US", "--format", "jsonl", "--sort", "frequency", "--top", "2", TEXT_FILES[3].toString()));
+        assertEquals(json.size(), 2);
+        assertTrue(json.get(0), json.get(0).matches("\\{\"word\":\"\\p{IsAlphabetic}+\",\"frequency\":4\\}"));
+    }
+
+    /**
+     * Runs the runner and returns the lines it writes, without the header of the
+     * TSV and CSV formats.
+     */
+    private static List<String> run(List<String> args) throws IOException {
+        StringWriter out = new StringWriter();
+        assertEquals(ConcordanceRunner.run(args.toArray(new String[0]), out), 0);
+        List<String> lines = new ArrayList<>(Arrays.asList(out.toString().split("\n")));
+        if (lines.get(0).startsWith("word")) {
+            lines.remove(0);
+        }
+        return lines;
+    }
+
+    private static List<String> list(Iterable<Entry<String, Integer>> words) {
+        List<String> result = new ArrayList<>();
+        for (Entry<String, Integer> entry : words) {
+            result.add(entry.getKey() + "=" + entry.getValue());
+        }
+        return result;
+    }
+}
@@ -4,6 +4,7 @@
 
 //Tests:
 //  multiLangTest - Tests the ability to handle various languages.
+//  multiLangOrderTest - Tests the sorted sets against the collator of the locale.
 //  stressTestDictionary - Tests the ability to handle a large breadth of words.
 //  stressTestLargeFile - Tests the ability to handle large files.
 //*******************************************************************
@@ -14,7 +15,9 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.text.Collator;
 import java.util.Locale;
+import java.util.Map.Entry;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
@@ -51,6 +54,35 @@ public class ConcordanceStressTests {
         assertEquals(instance.getWords(Concordance.Sort.ALPHABETIC, false).last().getKey(), "ﬁ");
     }
     
+    /**
+     * Test the ordering of multiple languages. This test validates that every pair
+     * of neighbouring words in the sorted sets is in the order the collator of the
+     * locale gives them, for both the alphabetic and the frequency ordering.
+     * @throws java.io.IOException
+     */
+    @Test
+    public void multiLangOrderTest() throws IOException {
+        for (Locale locale : new Locale[] {Locale.getDefault(), Locale.US, Locale.FRENCH, Locale.JAPANESE}) {
+            Collator collator = Collator.getInstance(locale);
+            Concordance instance = new Concordance(locale);
+            instance.readText(new InputStreamReader(new FileInputStream(MULTI_LANG_FILE_1), "UTF-8"), false);
+            instance.readText(new InputStreamReader(new FileInputStream(MULTI_LANG_FILE_2), "UTF-8"), false);
+            
+            Entry<String, Integer> previous = null;
+            for (Entry<String, Integer> entry : instance.getWords(Concordance.Sort.ALPHABETIC, false)) {
+                assertTrue(previous == null || collator.compare(previous.getKey(), entry.getKey()) < 0);
+                previous = entry;
+            }
+            
+            previous = null;
+            for (Entry<String, Integer> entry : instance.getWords(Concordance.Sort.FREQUENCY, false)) {
+                assertTrue(previous == null || previous.getValue() > entry.getValue()
+                        || (previous.getValue().equals(entry.getValue()) && collator.compare(previous.getKey(), entry.getKey()) < 0));
+                previous = entry;
+            }
+        }
+    }
+    
     /**
      * Test a dictionary based text file. This test is meant to read in and sort
      * a large dictionary text file.  The idea of a dictionary is that the words
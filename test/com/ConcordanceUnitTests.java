@@ -7,15 +7,46 @@
 //  testGetWordsByAlphabetical - Tests the alphabetically sorted set.
 //  testGetWordsByFrequency - Tests the "by-frequency" sorted set.
 //  testGetWordFrequency - Tests the map containing all the words from the text.
+//  testReadFile - Tests that reading a mapped file, on one or several threads, matches readText.
+//  testReadFileChunks - Tests splitting a file of several MB with chunk edges inside words and characters.
+//  testManyWords - Tests counting enough distinct words to grow the word table.
+//  testGetWordsAfterMoreText - Tests that the sorted sets follow text read after them.
+//  testTopK - Tests the most and least frequent words against the frequency set.
+//  testFeed - Tests reading texts that arrive in pieces of bytes or characters.
+//  testMalformedFeed - Tests that malformed UTF-8 split across pieces ends a word.
+//  testSaveLoad - Tests that a saved concordance loads with the same words and settings.
+//  testOccurrences - Tests that a positional concordance records where every word occurs.
+//  testWordsWithPrefix - Tests completing prefixes against a scan of the alphabetic set.
+//  testWordsBetween - Tests ranges of words against a scan of the alphabetic set.
+//  testStats - Tests the counters and timers of getStats and the MBean.
+//  testLocaleCase - Tests that words are lowercased for the locale of the concordance.
+//  testNGrams - Tests bigram and trigram counts and orders against a count of joined words.
 //*******************************************************************
 
 package com.pkc;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
@@ -202,4 +233,604 @@ public class ConcordanceUnitTests {
         instance.clear();
         assertTrue(instance.getWordFrequency("𐊅𐊆𐊇𐊈𐊉") == 0);
     }  
-}
\ No newline at end of file
+    
+    /**
+     * Test of readFile method. This test validates that reading a memory mapped file,
+     * on one or several threads, produces the same words and frequencies as reading
+     * it with readText.
+     * @throws java.io.IOException
+     */
+    @Test
+    public void testReadFile() throws IOException {
+        for (File file : new File[] {ENGLISH_FILE, UNICODE_FILE, COUNT_FILE_2}) {
+            for (boolean ignoreCase : new boolean[] {false, true}) {
+                Concordance expected = new Concordance(Locale.US);
+                expected.readText(new InputStreamReader(new FileInputStream(file), "UTF-8"), ignoreCase);
+                
+                Concordance instance = new Concordance(Locale.US);
+                instance.readFile(file.toPath(), ignoreCase);
+                
+                assertEquals(new ArrayList<>(expected.getWords(Concordance.Sort.FREQUENCY, false)), 
+                             new ArrayList<>(instance.getWords(Concordance.Sort.FREQUENCY, false)));
+                assertEquals(expected.getWordFrequency("be"), instance.getWordFrequency("be"));
+                
+                instance = new Concordance(Locale.US);
+                instance.readFile(file.toPath(), ignoreCase, 4);
+                
+                assertEquals(new ArrayList<>(expected.getWords(Concordance.Sort.FREQUENCY, false)), 
+                             new ArrayList<>(instance.getWords(Concordance.Sort.FREQUENCY, false)));
+                assertEquals(expected.getWordFrequency("be"), instance.getWordFrequency("be"));
+            }
+        }
+    }
+    
+    /**
+     * Test of readFile on several threads with a file large enough to be split.
+     * Runs of long words and of multi-byte characters are placed over the first
+     * chunk edge, shifted a byte at a time so the edge lands inside every byte of
+     * a UTF-8 sequence, and the random text of mixed scripts after them moves the
+     * later edges. Every split must give the words and frequencies of readText.
+     * @throws java.io.IOException
+     */
+    @Test
+    public void testReadFileChunks() throws IOException {
+        String[] words = {"the", "Straße", "ωμέγα", "жизнь", "日本語", "ᚠᛇᚻ", "𐊁𐊂𐊃", "a"};
+        String[] separators = {" ", ", ", "\n", " — ", "。"};
+        String[] spans = {"𐊁𐊂ωжa", "日本—"};
+        int edge = 1 << 20;
+        
+        for (String span : spans) {
+            for (int shift = 0; shift < 4; shift++) {
+                Random random = new Random(shift);
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                while (bytes.size() < edge - 4096 - shift) {
+                    write(bytes, words[random.nextInt(words.length)] + separators[random.nextInt(separators.length)]);
+                }
+                while (bytes.size() < edge + 4096) {
+                    write(bytes, span);
+                }
+                while (bytes.size() < 3 * edge + edge / 2) {
+                    StringBuilder word = new StringBuilder(words[random.nextInt(words.length)]);
+                    while (random.nextInt(8) == 0) {
+                        word.append(words[random.nextInt(words.length)]);
+                    }
+                    write(bytes, word + separators[random.nextInt(separators.length)]);
+                }
+                
+                Path file = Files.createTempFile("concordance", ".txt");
+                try {
+                    Files.write(file, bytes.toByteArray());
+                    Concordance expected = new Concordance(Locale.US);
+                    expected.readText(new StringReader(new String(bytes.toByteArray(), "UTF-8")), true);
+                    
+                    Concordance instance = new Concordance(Locale.US);
+                    instance.readFile(file, true, 4);
+                    
+                    assertEquals(new ArrayList<>(expected.getWords(Concordance.Sort.FREQUENCY, false)), 
+                                 new ArrayList<>(instance.getWords(Concordance.Sort.FREQUENCY, false)));
+                } finally {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Test of counting many distinct words. This test validates that every word
+     * keeps its frequency while the word table grows well past its initial size.
+     * @throws java.io.IOException
+     */
+    @Test
+    public void testManyWords() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 30000; i++) {
+            for (char c : Integer.toString(i, Character.MAX_RADIX).toCharArray()) {
+                text.append(Character.isDigit(c) ? (char) ('α' + c - '0') : c);
+            }
+            text.append(i % 3 == 0 ? "\n" : " ");
+        }
+        text.append("aa AA Aa");
+        
+        Concordance instance = new Concordance(Locale.US);
+        instance.readText(new StringReader(text.toString()), false);
+        
+        assertEquals(instance.getWords(Concordance.Sort.ALPHABETIC, false).size(), 30002);
+        assertTrue(instance.getWordFrequency("aa") == 2);
+        assertTrue(instance.getWordFrequency("AA") == 1);
+        assertTrue(instance.getWordFrequency("mzz") == 1);
+        assertTrue(instance.getWordFrequency("βαα") == 1);
+        assertTrue(instance.getWordFrequency("βαααα") == 0);
+        
+        instance = new Concordance(Locale.US);
+        instance.readText(new StringReader(text.toString()), true);
+        
+        assertEquals(instance.getWords(Concordance.Sort.ALPHABETIC, false).size(), 30000);
+        assertTrue(instance.getWordFrequency("AA") == 4);
+        assertEquals(instance.getWords(Concordance.Sort.FREQUENCY, false).first().getKey(), "aa");
+    }
+    
+    /**
+     * Test of getWords after more text is read. This test validates that the sets
+     * returned before a second text is read are updated with its new words and
+     * frequencies, and match the sets of a concordance that read both texts first.
+     * @throws java.io.IOException
+     */
+    @Test
+    public void testGetWordsAfterMoreText() throws IOException {
+        for (boolean ignoreCase : new boolean[] {false, true}) {
+            Concordance expected = new Concordance(Locale.US);
+            expected.readText(new InputStreamReader(new FileInputStream(ENGLISH_FILE), "UTF-8"), ignoreCase);
+            expected.readText(new InputStreamReader(new FileInputStream(COUNT_FILE_1), "UTF-8"), ignoreCase);
+            expected.readText(new InputStreamReader(new FileInputStream(ENGLISH_FILE), "UTF-8"), ignoreCase);
+            
+            Concordance instance = new Concordance(Locale.US);
+            instance.readText(new InputStreamReader(new FileInputStream(ENGLISH_FILE), "UTF-8"), ignoreCase);
+            instance.getWords(Concordance.Sort.ALPHABETIC, false);
+            instance.getWords(Concordance.Sort.FREQUENCY, false);
+            instance.readText(new InputStreamReader(new FileInputStream(COUNT_FILE_1), "UTF-8"), ignoreCase);
+            instance.getWords(Concordance.Sort.FREQUENCY, false);
+            instance.readText(new InputStreamReader(new FileInputStream(ENGLISH_FILE), "UTF-8"), ignoreCase);
+            
+            assertEquals(new ArrayList<>(expected.getWords(Concordance.Sort.ALPHABETIC, false)), 
+                         new ArrayList<>(instance.getWords(Concordance.Sort.ALPHABETIC, false)));
+            assertEquals(new ArrayList<>(expected.getWords(Concordance.Sort.FREQUENCY, true)), 
+                         new ArrayList<>(instance.getWords(Concordance.Sort.FREQUENCY, true)));
+            assertTrue(instance.getWords(Concordance.Sort.FREQUENCY, false).first().getValue() == 8);
+        }
+    }
+    
+    /**
+     * Test of topK and bottomK. This test validates that the most and least frequent
+     * words, including ties, are the head of the frequency set in either direction,
+     * whether or not the frequency set has been built.
+     * @throws java.io.IOException
+     */
+    @Test
+    public void testTopK() throws IOException {
+        for (File file : new File[] {ENGLISH_FILE, UNICODE_FILE, COUNT_FILE_2}) {
+            Concordance expected = new Concordance(Locale.US);
+            expected.readText(new InputStreamReader(new FileInputStream(file), "UTF-8"), true);
+            List<Entry<String, Integer>> top = new ArrayList<>(expected.getWords(Concordance.Sort.FREQUENCY, false));
+            List<Entry<String, Integer>> bottom = new ArrayList<>(expected.getWords(Concordance.Sort.FREQUENCY, true));
+            
+            for (int k = 0; k <= top.size() + 1; k++) {
+                Concordance instance = new Concordance(Locale.US);
+                instance.readText(new InputStreamReader(new FileInputStream(file), "UTF-8"), true);
+                
+                assertEquals(top.subList(0, Math.min(k, top.size())), instance.topK(k));
+                assertEquals(bottom.subList(0, Math.min(k, bottom.size())), instance.bottomK(k));
+                assertEquals(top.subList(0, Math.min(k, top.size())), expected.topK(k));
+                assertEquals(bottom.subList(0, Math.min(k, bottom.size())), expected.bottomK(k));
+            }
+        }
+        
+        Concordance instance = new Concordance(Locale.US);
+        instance.readText(new InputStreamReader(new FileInputStream(ENGLISH_FILE), "UTF-8"), false);
+        assertEquals(instance.topK(1).get(0).getKey(), "should");
+        assertTrue(instance.topK(1).get(0).getValue() == 4);
+        assertEquals(instance.bottomK(1).get(0).getKey(), "Zoo");
+    }
+    
+    /**
+     * Test of openFeed. This test validates that texts given to feeds in pieces, as
+     * small as a single byte or char and split inside words, surrogate pairs and 
+     * UTF-8 sequences, produce the same words and frequencies as readText. Two 
+     * feeds are used at once to validate they do not share their partial words.
+     * @throws java.io.IOException
+     */
+    @Test
+    public void testFeed() throws IOException {
+        for (boolean ignoreCase : new boolean[] {false, true}) {
+            Concordance expected = new Concordance(Locale.US);
+            expected.readText(new InputStreamReader(new FileInputStream(UNICODE_FILE), "UTF-8"), ignoreCase);
+            expected.readText(new InputStreamReader(new FileInputStream(COUNT_FILE_1), "UTF-8"), ignoreCase);
+            
+            for (int piece = 1; piece <= 7; piece++) {
+                byte[] bytes = Files.readAllBytes(UNICODE_FILE.toPath());
+                String text = new String(Files.readAllBytes(COUNT_FILE_1.toPath()), "UTF-8");
+                
+                Concordance instance = new Concordance(Locale.US);
+                Concordance.Feed byteFeed = instance.openFeed(ignoreCase);
+                Concordance.Feed charFeed = instance.openFeed(ignoreCase);
+                for (int i = 0; i < Math.max(bytes.length, text.length()); i += piece) {
+                    if (i < bytes.length) {
+                        byteFeed.feed(ByteBuffer.wrap(bytes, i, Math.min(piece, bytes.length - i)));
+                    }
+                    if (i < text.length()) {
+                        charFeed.feed(text.subSequence(i, Math.min(i + piece, text.length())));
+                    }
+                }
+                byteFeed.finish();
+                charFeed.finish();
+                
+                assertEquals(new ArrayList<>(expected.getWords(Concordance.Sort.FREQUENCY, false)), 
+                             new ArrayList<>(instance.getWords(Concordance.Sort.FREQUENCY, false)));
+            }
+        }
+    }
+    
+    /**
+     * Test of openFeed with malformed UTF-8. An encoded surrogate and an overlong 
+     * sequence, split across two pieces at every byte, must end the word before 
+     * them as they do when fed whole.
+     * @throws java.io.IOException
+     */
+    @Test
+    public void testMalformedFeed() throws IOException {
+        byte[][] texts = {
+            {'a', 'b', (byte) 0xED, (byte) 0xA0, (byte) 0x80, 'c', 'd'},
+            {'a', 'b', (byte) 0xF0, (byte) 0x80, (byte) 0x80, (byte) 0x80, 'c', 'd'}};
+        for (byte[] bytes : texts) {
+            for (int split = 0; split <= bytes.length; split++) {
+                Concordance instance = new Concordance(Locale.US);
+                Concordance.Feed feed = instance.openFeed(true);
+                feed.feed(ByteBuffer.wrap(bytes, 0, split));
+                feed.feed(ByteBuffer.wrap(bytes, split, bytes.length - split));
+                feed.finish();
+                
+                assertEquals(instance.getWords(Concordance.Sort.ALPHABETIC, false).size(), 2);
+                assertEquals(instance.getWordFrequency("ab"), 1);
+                assertEquals(instance.getWordFrequency("cd"), 1);
+            }
+        }
+    }
+    
+    /**
+     * Test of save and load. This test validates that a loaded concordance has the
+     * words, frequencies and case setting of the saved one, in both orders, and 
+     * that it can read more text. A file that was not saved must not load.
+     * @throws java.io.IOException
+     */
+    @Test
+    public void testSaveLoad() throws IOException {
+        Path file = Files.createTempFile("concordance", ".bin");
+        try {
+            for (boolean ignoreCase : new boolean[] {false, true}) {
+                Concordance expected = new Concordance(Locale.FRENCH);
+                expected.readText(new InputStreamReader(new FileInputStream(UNICODE_FILE), "UTF-8"), ignoreCase);
+                expected.readText(new InputStreamReader(new FileInputStream(COUNT_FILE_2), "UTF-8"), ignoreCase);
+                expected.save(file);
+                
+                Concordance instance = Concordance.load(file);
+                assertEquals(new ArrayList<>(expected.getWords(Concordance.Sort.ALPHABETIC, false)), 
+                             new ArrayList<>(instance.getWords(Concordance.Sort.ALPHABETIC, false)));
+                assertEquals(new ArrayList<>(expected.getWords(Concordance.Sort.ALPHABETIC, true)), 
+                             new ArrayList<>(instance.getWords(Concordance.Sort.ALPHABETIC, true)));
+                assertEquals(expected.getWords(Concordance.Sort.ALPHABETIC, false).size(), 
+                             instance.getWords(Concordance.Sort.ALPHABETIC, false).size());
+                for (Entry<String, Integer> entry : expected.getWords(Concordance.Sort.ALPHABETIC, false)) {
+                    assertEquals(expected.getWordFrequency(entry.getKey().toUpperCase()), instance.getWordFrequency(entry.getKey().toUpperCase()));
+                    assertTrue(instance.getWordFrequency(entry.getKey()) == entry.getValue());
+                }
+                assertEquals(instance.getWordFrequency("absent"), 0);
+                
+                instance.readText(new InputStreamReader(new FileInputStream(ENGLISH_FILE), "UTF-8"), ignoreCase);
+                expected.readText(new InputStreamReader(new FileInputStream(ENGLISH_FILE), "UTF-8"), ignoreCase);
+                assertEquals(new ArrayList<>(expected.getWords(Concordance.Sort.FREQUENCY, false)), 
+                             new ArrayList<>(instance.getWords(Concordance.Sort.FREQUENCY, false)));
+            }
+            
+            Files.write(file, Files.readAllBytes(ENGLISH_FILE.toPath()));
+            try {
+                Concordance.load(file);
+                fail("A text file was loaded.");
+            } catch (IOException ex) {
+                //Expected
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+    
+    /**
+     * Test of getOccurrences. This test validates that every occurrence of every
+     * word points at that word in its text, that there are as many occurrences as
+     * the frequency of the word, and that texts read as chars, as a file and as
+     * bytes fed in small pieces are numbered in order and get the same offsets.
+     * @throws java.io.IOException
+     */
+    @Test
+    public void testOccurrences() throws IOException {
+        for (boolean ignoreCase : new boolean[] {false, true}) {
+            String text = new String(Files.readAllBytes(UNICODE_FILE.toPath()), "UTF-8");
+            byte[] bytes = Files.readAllBytes(UNICODE_FILE.toPath());
+            
+            Concordance instance = new Concordance(Locale.US, true);
+            instance.readText(new InputStreamReader(new FileInputStream(UNICODE_FILE), "UTF-8"), ignoreCase);
+            instance.readFile(UNICODE_FILE.toPath(), ignoreCase);
+            Concordance.Feed feed = instance.openFeed(ignoreCase);
+            for (int i = 0; i < bytes.length; i += 3) {
+                feed.feed(ByteBuffer.wrap(bytes, i, Math.min(3, bytes.length - i)));
+            }
+            feed.finish();
+            
+            for (Entry<String, Integer> entry : instance.getWords(Concordance.Sort.ALPHABETIC, false)) {
+                List<List<Long>> offsets = new ArrayList<>();
+                for (int i = 0; i < 3; i++) {
+                    offsets.add(new ArrayList<>());
+                }
+                
+                Iterator<Concordance.Occurrence> occurrences = instance.getOccurrences(entry.getKey());
+                while (occurrences.hasNext()) {
+                    Concordance.Occurrence occurrence = occurrences.next();
+                    String word = text.substring((int) occurrence.getOffset(), (int) occurrence.getOffset() + entry.getKey().length());
+                    assertEquals(entry.getKey(), ignoreCase ? word.toLowerCase() : word);
+                    offsets.get(occurrence.getText()).add(occurrence.getOffset());
+                }
+                
+                assertTrue(offsets.get(0).size() * 3 == entry.getValue());
+                assertEquals(offsets.get(0), offsets.get(1));
+                assertEquals(offsets.get(0), offsets.get(2));
+            }
+        }
+        
+        Concordance instance = new Concordance(Locale.US, true);
+        instance.readText(new StringReader("Bee Ant bee"), true);
+        Iterator<Concordance.Occurrence> occurrences = instance.getOccurrences("BEE");
+        assertEquals(occurrences.next().getOffset(), 0);
+        assertEquals(occurrences.next().getOffset(), 8);
+        assertFalse(occurrences.hasNext());
+        assertFalse(instance.getOccurrences("wasp").hasNext());
+    }
+    
+    /**
+     * Test of wordsWithPrefix. This test validates that every prefix of every word,
+     * with several limits, lists the same words as a scan of the alphabetic set,
+     * before and after more text is read into the concordance.
+     * @throws java.io.IOException
+     */
+    @Test
+    public void testWordsWithPrefix() throws IOException {
+        for (boolean ignoreCase : new boolean[] {false, true}) {
+            Concordance instance = new Concordance(Locale.US);
+            for (File file : new File[] {ENGLISH_FILE, UNICODE_FILE}) {
+                instance.readText(new InputStreamReader(new FileInputStream(file), "UTF-8"), ignoreCase);
+                List<Entry<String, Integer>> words = new ArrayList<>(instance.getWords(Concordance.Sort.ALPHABETIC, false));
+                
+                for (Entry<String, Integer> word : words) {
+                    for (int length = 0; length <= word.getKey().length(); length += 2) {
+                        String prefix = word.getKey().substring(0, length);
+                        List<Entry<String, Integer>> expected = new ArrayList<>();
+                        for (Entry<String, Integer> entry : words) {
+                            if (entry.getKey().startsWith(prefix)) {
+                                expected.add(entry);
+                            }
+                        }
+                        
+                        assertEquals(expected, instance.wordsWithPrefix(prefix, Integer.MAX_VALUE));
+                        assertEquals(expected.subList(0, Math.min(3, expected.size())), instance.wordsWithPrefix(prefix, 3));
+                        assertTrue(instance.wordsWithPrefix(prefix, 0).isEmpty());
+                    }
+                }
+            }
+        }
+        
+        Concordance instance = new Concordance(Locale.US);
+        instance.readText(new StringReader("Bee Ant bee beetle"), true);
+        assertEquals(instance.wordsWithPrefix("BEE", 5).size(), 2);
+        assertTrue(instance.wordsWithPrefix("wasp", 5).isEmpty());
+    }
+    
+    /**
+     * Test of wordsBetween. This test validates that ranges bounded by words of
+     * the concordance, and by strings that are not, list the same words as a scan
+     * of the alphabetic set, before and after more text is read.
+     * @throws java.io.IOException
+     */
+    @Test
+    public void testWordsBetween() throws IOException {
+        Collator collator = Collator.getInstance(Locale.US);
+        for (boolean ignoreCase : new boolean[] {false, true}) {
+            Concordance instance = new Concordance(Locale.US);
+            for (File file : new File[] {ENGLISH_FILE, UNICODE_FILE}) {
+                instance.readText(new InputStreamReader(new FileInputStream(file), "UTF-8"), ignoreCase);
+                List<Entry<String, Integer>> words = new ArrayList<>(instance.getWords(Concordance.Sort.ALPHABETIC, false));
+                
+                for (int i = 0; i < words.size(); i += 7) {
+                    for (int j = i; j < words.size(); j += 61) {
+                        String from = words.get(i).getKey();
+                        String to = (j % 2 == 0) ? words.get(j).getKey() : words.get(j).getKey() + "-";
+                        assertEquals(words.subList(i, j + (j % 2)), instance.wordsBetween(from, to));
+                        
+                        List<Entry<String, Integer>> expected = new ArrayList<>();
+                        for (Entry<String, Integer> entry : words) {
+                            if (collator.compare(entry.getKey(), from + "-") >= 0 && collator.compare(entry.getKey(), to) < 0) {
+                                expected.add(entry);
+                            }
+                        }
+                        assertEquals(expected, instance.wordsBetween(from + "-", to));
+                    }
+                }
+                assertTrue(instance.wordsBetween(words.get(1).getKey(), words.get(0).getKey()).isEmpty());
+            }
+        }
+        
+        Concordance instance = new Concordance(Locale.US);
+        instance.readText(new StringReader("Bee Ant bee beetle Cat"), true);
+        assertEquals(instance.wordsBetween("ANT", "Bee").size(), 1);
+        assertEquals(instance.wordsBetween("b", "c").size(), 2);
+    }
+    
+    /**
+     * Test of getStats. The counters of a small text are checked exactly, for a
+     * text read as chars and as UTF-8 bytes, and the timers must only move while
+     * stats are enabled. The same stats are read back through the MBean.
+     * @throws java.io.IOException
+     * @throws javax.management.JMException
+     */
+    @Test
+    public void testStats() throws IOException, JMException {
+        String text = "The cat, the \uD800\uDF45 and the h\u00E9n. ";
+        Concordance instance = new Concordance(Locale.US);
+        instance.readText(new StringReader(text), true);
+        ConcordanceStats stats = instance.getStats();
+        assertEquals(stats.getChars(), text.length());
+        assertEquals(stats.getBytes(), 0);
+        assertEquals(stats.getCodePoints(), text.codePointCount(0, text.length()));
+        assertEquals(stats.getTokens(), 7);
+        assertEquals(stats.getDistinctWords(), 5);
+        assertEquals(stats.getTokenizeNanos(), 0);
+        
+        Concordance.Feed feed = instance.openFeed(true);
+        feed.feed(ByteBuffer.wrap(text.getBytes("UTF-8")));
+        feed.finish();
+        stats = instance.getStats();
+        assertEquals(stats.getBytes(), text.getBytes("UTF-8").length);
+        assertEquals(stats.getCodePoints(), 2 * text.codePointCount(0, text.length()));
+        assertEquals(stats.getTokens(), 14);
+        instance.getWords(Concordance.Sort.ALPHABETIC, false);
+        assertEquals(instance.getStats().getSortNanos(), 0);
+        
+        instance = new Concordance(Locale.US);
+        instance.setStatsEnabled(true);
+        for (int i = 0; i < 5000; i++) {
+            instance.readText(new StringReader("word" + Integer.toString(i, 26).replaceAll("[0-9]", "x") + " "), false);
+        }
+        instance.getWords(Concordance.Sort.FREQUENCY, false);
+        stats = instance.getStats();
+        assertTrue(stats.getResizes() > 0);
+        assertTrue(stats.getTokenizeNanos() > 0);
+        assertTrue(stats.getCountNanos() > 0);
+        assertTrue(stats.getSortNanos() > 0);
+        
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = instance.registerMBean("testStats");
+        try {
+            assertEquals(server.getAttribute(name, "Tokens"), stats.getTokens());
+            assertEquals(server.getAttribute(name, "DistinctWords"), stats.getDistinctWords());
+            assertEquals(server.getAttribute(name, "StatsEnabled"), true);
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+    
+    /**
+     * Test of ignoring case under different locales. Words are lowercased for the
+     * locale given to the concordance, both when read and when looked up, and
+     * must match String.toLowerCase for that locale, including the letters that
+     * depend on the letters around them.
+     * @throws java.io.IOException
+     */
+    @Test
+    public void testLocaleCase() throws IOException {
+        String text = "ILIK \u0130stanbul \u039F\u0394\u039F\u03A3 \uD801\uDC00\uD801\uDC01 Im\u00C9";
+        for (Locale locale : new Locale[] {Locale.US, new Locale("tr"), new Locale("lt"), Locale.GERMANY}) {
+            List<String> expected = new ArrayList<>();
+            for (String word : text.split(" ")) {
+                expected.add(word.toLowerCase(locale));
+            }
+            
+            Concordance instance = new Concordance(locale);
+            instance.readText(new StringReader(text), true);
+            Concordance.Feed feed = instance.openFeed(true);
+            feed.feed(ByteBuffer.wrap(text.getBytes("UTF-8")));
+            feed.finish();
+            for (String word : expected) {
+                assertEquals(locale + " " + word, 2, instance.getWordFrequency(word));
+            }
+            for (String word : text.split(" ")) {
+                assertEquals(locale + " " + word, 2, instance.getWordFrequency(word));
+            }
+            assertEquals(instance.getWords(Concordance.Sort.ALPHABETIC, false).size(), expected.size());
+        }
+        
+        Concordance turkish = new Concordance(new Locale("tr"));
+        turkish.readText(new StringReader(text), true);
+        assertEquals(turkish.getWordFrequency("\u0131l\u0131k"), 1);
+        assertEquals(turkish.getWordFrequency("ilik"), 0);
+        assertEquals(turkish.getWordFrequency("\u03BF\u03B4\u03BF\u03C2"), 1);
+    }
+    
+    /**
+     * Test of getNGrams. The n-grams of two texts, read with readText and readFile,
+     * are checked against counting the words of each text joined by spaces, in
+     * both orders and with several limits, and again after merging two halves.
+     * @throws java.io.IOException
+     */
+    @Test
+    public void testNGrams() throws IOException {
+        String text = "the cat sat on the mat and the cat ran. The cat sat on the hat. ";
+        Concordance instance = Concordance.nGrams(Locale.US, 3);
+        instance.readText(new StringReader(text), true);
+        assertEquals(instance.getNGrams(3, Concordance.Sort.FREQUENCY, 1).get(0).getKey(), "cat sat on");
+        assertEquals((int) instance.getNGrams(3, Concordance.Sort.FREQUENCY, 1).get(0).getValue(), 2);
+        assertEquals(instance.getNGrams(1, Concordance.Sort.FREQUENCY, 5), instance.topK(5));
+        instance.readFile(ENGLISH_FILE.toPath(), true);
+        
+        List<String> words = new ArrayList<>();
+        for (String word : text.split("[^a-zA-Z]+")) {
+            words.add(word.toLowerCase(Locale.US));
+        }
+        int first = words.size();
+        for (Entry<String, Integer> entry : instance.getNGrams(2, Concordance.Sort.FREQUENCY, 3)) {
+            assertTrue(entry.getKey(), entry.getKey().matches("\\p{IsAlphabetic}+ \\p{IsAlphabetic}+"));
+        }
+        
+        WordTokenizer tokenizer = new WordTokenizer(Locale.US, true, (chars, length, hash) -> words.add(new String(chars, 0, length)));
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(ENGLISH_FILE.toPath()));
+        tokenizer.scan(bytes);
+        tokenizer.finish();
+        
+        Collator collator = Collator.getInstance(Locale.US);
+        for (int n = 2; n <= 3; n++) {
+            Map<String, Integer> counts = new HashMap<>();
+            for (int i = 0; i + n <= words.size(); i++) {
+                if (i < first && i + n > first) {
+                    continue;
+                }
+                counts.merge(String.join(" ", words.subList(i, i + n)), 1, Integer::sum);
+            }
+            List<Entry<String, Integer>> expected = new ArrayList<>(counts.entrySet());
+            expected.sort((o1, o2) -> {
+                int comp = o2.getValue().compareTo(o1.getValue());
+                String[] w1 = o1.getKey().split(" ");
+                String[] w2 = o2.getKey().split(" ");
+                for (int i = 0; comp == 0 && i < w1.length; i++) {
+                    comp = collator.compare(w1[i], w2[i]);
+                }
+                return comp;
+            });
+            for (int limit : new int[] {0, 1, 10, Integer.MAX_VALUE}) {
+                assertEquals(expected.subList(0, Math.min(limit, expected.size())), instance.getNGrams(n, Concordance.Sort.FREQUENCY, limit));
+            }
+            
+            List<Entry<String, Integer>> alphabetic = instance.getNGrams(n, Concordance.Sort.ALPHABETIC, Integer.MAX_VALUE);
+            assertEquals(alphabetic.size(), counts.size());
+            assertEquals(alphabetic.subList(0, 10), instance.getNGrams(n, Concordance.Sort.ALPHABETIC, 10));
+            for (int i = 1; i < alphabetic.size(); i++) {
+                String[] w1 = alphabetic.get(i - 1).getKey().split(" ");
+                String[] w2 = alphabetic.get(i).getKey().split(" ");
+                int comp = 0;
+                for (int j = 0; comp == 0 && j < n; j++) {
+                    comp = collator.compare(w1[j], w2[j]);
+                }
+                assertTrue(alphabetic.get(i).getKey(), comp < 0);
+                assertEquals((int) counts.get(alphabetic.get(i).getKey()), (int) alphabetic.get(i).getValue());
+            }
+        }
+        
+        Concordance merged = Concordance.nGrams(Locale.US, 3);
+        merged.readText(new StringReader(text), true);
+        Concordance other = Concordance.nGrams(Locale.US, 3);
+        other.readFile(ENGLISH_FILE.toPath(), true);
+        merged.merge(other);
+        assertEquals(instance.getNGrams(3, Concordance.Sort.FREQUENCY, Integer.MAX_VALUE), merged.getNGrams(3, Concordance.Sort.FREQUENCY, Integer.MAX_VALUE));
+        
+        merged.clear();
+        assertTrue(merged.getNGrams(2, Concordance.Sort.ALPHABETIC, 10).isEmpty());
+        try {
+            new Concordance(Locale.US).getNGrams(2, Concordance.Sort.FREQUENCY, 10);
+            fail("A concordance created without nGrams has no n-grams");
+        } catch (IllegalStateException ex) {
+        }
+        try {
+            instance.getNGrams(4, Concordance.Sort.FREQUENCY, 10);
+            fail("Only n-grams of up to 3 words are counted");
+        } catch (IllegalArgumentException ex) {
+        }
+    }
+    
+    private static void write(ByteArrayOutputStream bytes, String text) throws IOException {
+        bytes.write(text.getBytes("UTF-8"));
+    }
+}
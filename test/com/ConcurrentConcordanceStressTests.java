@@ -0,0 +1,156 @@
+//*******************************************************************
+//Author: Spencer E Reeves
+//Last Modified: 10-17-2026
+
+//Tests:
+//  concurrentReadTest - Tests that texts read by many threads are all counted.
+//  snapshotTest - Tests that snapshots taken during reading hold whole texts.
+//*******************************************************************
+
+package com.pkc;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+
+public class ConcurrentConcordanceStressTests {
+    
+    public final static String BASE = System.getProperty("user.dir") + File.separator + 
+                              "test" + File.separator + "sample_data" + File.separator ;
+    public final static File[] TEXT_FILES = {
+        new File (BASE + "english_test.txt"),
+        new File (BASE + "unicode_test.txt"),
+        new File (BASE + "count_test_x4.txt"),
+        new File (BASE + "multi_lang_test_1.txt"),
+        new File (BASE + "multi_lang_test_2.txt")};
+    
+    public ConcurrentConcordanceStressTests() {
+        //TODO: Import and initialize logger
+    }
+
+    /**
+     * Test many threads reading at once. Every sample text is read many times by
+     * several threads, and the result is compared against a single threaded
+     * concordance that read the same texts the same number of times.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void concurrentReadTest() throws Exception {
+        List<String> texts = readTexts();
+        int rounds = 50;
+        
+        for (boolean ignoreCase : new boolean[] {false, true}) {
+            Concordance expected = new Concordance(Locale.US);
+            for (int i = 0; i < rounds; i++) {
+                for (String text : texts) {
+                    expected.readText(new StringReader(text), ignoreCase);
+                }
+            }
+            
+            ConcurrentConcordance instance = new ConcurrentConcordance(Locale.US, ignoreCase);
+            run(8, rounds, texts, instance, null);
+            
+            assertEquals(new ArrayList<>(expected.getWords(Concordance.Sort.ALPHABETIC, false)), 
+                         new ArrayList<>(instance.getWords(Concordance.Sort.ALPHABETIC, false)));
+            assertEquals(new ArrayList<>(expected.getWords(Concordance.Sort.FREQUENCY, true)), 
+                         new ArrayList<>(instance.getWords(Concordance.Sort.FREQUENCY, true)));
+            assertEquals(expected.getWordFrequency("Be"), instance.getWordFrequency("Be"));
+        }
+    }
+    
+    /**
+     * Test snapshots taken while texts are being read. Every thread reads the same
+     * text, so the total of the frequencies in a snapshot must be a whole multiple
+     * of the number of words in the text.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void snapshotTest() throws Exception {
+        String text = new String(Files.readAllBytes(TEXT_FILES[4].toPath()), StandardCharsets.UTF_8);
+        Concordance single = new Concordance(Locale.US);
+        single.readText(new StringReader(text), true);
+        long words = total(single.getWords(Concordance.Sort.ALPHABETIC, false));
+        
+        ConcurrentConcordance instance = new ConcurrentConcordance(Locale.US, true);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicBoolean consistent = new AtomicBoolean(true);
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                if (total(instance.getWords(Concordance.Sort.FREQUENCY, false)) % words != 0) {
+                    consistent.set(false);
+                }
+            }
+        });
+        reader.start();
+        try {
+            run(4, 200, Collections.singletonList(text), instance, done);
+        } finally {
+            done.set(true);
+            reader.join();
+        }
+        
+        assertTrue(consistent.get());
+        assertEquals(200 * words, total(instance.getWords(Concordance.Sort.ALPHABETIC, false)));
+    }
+    
+    /**
+     * Reads every text a number of times, sharing the work between threads.
+     * @param threads - The number of threads reading
+     * @param rounds - The number of times each text is read
+     * @param texts - The texts to be read
+     * @param instance - The concordance the texts are read into
+     * @param done - Set once every text is read, if not null
+     * @throws Exception 
+     */
+    private static void run(int threads, int rounds, List<String> texts, ConcurrentConcordance instance, AtomicBoolean done) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < rounds; i++) {
+            for (String text : texts) {
+                results.add(pool.submit(() -> {
+                    instance.readText(new StringReader(text));
+                    return null;
+                }));
+            }
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        if (done != null) {
+            done.set(true);
+        }
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+    }
+    
+    private static List<String> readTexts() throws IOException {
+        List<String> texts = new ArrayList<>();
+        for (File file : TEXT_FILES) {
+            texts.add(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+        }
+        return texts;
+    }
+    
+    private static long total(Iterable<Entry<String, Integer>> words) {
+        long total = 0;
+        for (Entry<String, Integer> entry : words) {
+            total += entry.getValue();
+        }
+        return total;
+    }
+}